@@ -0,0 +1,78 @@
+package com.jacknie.example.config;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+@Getter
+@Setter
+@ConfigurationProperties(prefix = "acl")
+public class AclProperties {
+
+    /**
+     * ACL 캐시 설정
+     */
+    private Cache cache = new Cache();
+
+    /**
+     * 캐시 되지 않은 ACL 의 단일 권한 검사를 ACL 객체 생성 없이 쿼리 1회로 처리 할지 여부
+     */
+    private boolean pushdownCheck = false;
+
+    /**
+     * 쿼리 1회로 처리 하던 ACL 을 캐시에 저장 하기 까지의 검사 횟수 (pushdownCheck 가 켜진 경우)
+     */
+    private int pushdownWarmUpThreshold = 2;
+
+    /**
+     * 객체 식별 정보 계층을 조상 closure 테이블로 관리 할지 여부 (RECURSIVE 조상 조회 모드의 조상 조회와 하위 트리 삭제에 사용)
+     */
+    private boolean closureTable = false;
+
+    /**
+     * closure 테이블을 사용 할 때 시작 시점에 closure 가 없는 객체 식별 정보의 closure 를 저장 할지 여부
+     */
+    private boolean closureBackfill = true;
+
+    /**
+     * 정수 객체 식별 정보를 숫자 컬럼으로 조회 할지 여부 (숫자 컬럼이 채워지지 않은 이전 객체 식별 정보가 남아 있으면 끄고 문자열 컬럼으로 조회)
+     */
+    private boolean objectIdNumberLookup = true;
+
+    /**
+     * 시작 시점에 숫자 컬럼이 채워지지 않은 이전 객체 식별 정보의 숫자 컬럼을 채울지 여부
+     */
+    private boolean objectIdNumberBackfill = true;
+
+    @Getter
+    @Setter
+    public static class Cache {
+
+        /**
+         * 캐시 할 최대 ACL 개수 (maximumWeight 가 설정 되면 무시)
+         */
+        private long maximumSize = 100_000;
+
+        /**
+         * 캐시 할 최대 가중치 (ACL 1 + ACE 개수)
+         */
+        private Long maximumWeight;
+
+        /**
+         * 저장 후 만료 시간
+         */
+        private Duration expireAfterWrite;
+
+        /**
+         * 마지막 접근 후 만료 시간
+         */
+        private Duration expireAfterAccess;
+
+        /**
+         * 보관 할 최대 무효화 세대 개수 (넘치면 가장 오래된 세대 이전에 불러온 ACL 은 모두 만료)
+         */
+        private int maximumInvalidations = 100_000;
+    }
+}
@@ -1,9 +1,11 @@
 package com.jacknie.example.config;
 
+import com.jacknie.example.custom.CompactAcl;
 import org.springframework.security.acls.domain.AuditLogger;
 import org.springframework.security.acls.domain.DefaultPermissionGrantingStrategy;
-import org.springframework.security.acls.model.AccessControlEntry;
-import org.springframework.security.acls.model.Permission;
+import org.springframework.security.acls.model.*;
+
+import java.util.List;
 
 public class CumulativePermissionGrantingStrategy extends DefaultPermissionGrantingStrategy {
 
@@ -11,6 +13,25 @@ public class CumulativePermissionGrantingStrategy extends DefaultPermissionGrant
         super(auditLogger);
     }
 
+    @Override
+    public boolean isGranted(Acl acl, List<Permission> permission, List<Sid> sids, boolean administrativeMode) {
+        if (!(acl instanceof CompactAcl compactAcl) || !compactAcl.isMaskTableApplicable(permission)) {
+            return super.isGranted(acl, permission, sids, administrativeMode);
+        }
+        // Same decision as the linear scan, answered from the ACL's precompiled SID mask table
+        Boolean granted = compactAcl.findGranted(permission, sids);
+        if (granted != null) {
+            return granted;
+        }
+        // No matches have been found so far
+        if (acl.isEntriesInheriting() && (acl.getParentAcl() != null)) {
+            // We have a parent, so let them try to find a matching ACE
+            return acl.getParentAcl().isGranted(permission, sids, false);
+        }
+        // We either have no parent, or we're the uppermost parent
+        throw new NotFoundException("Unable to locate a matching ACE for passed permissions and SIDs");
+    }
+
     @Override
     protected boolean isGranted(AccessControlEntry ace, Permission p) {
         if (ace.isGranting() && ace.getPermission().getMask() != 0) {
@@ -1,32 +1,35 @@
 package com.jacknie.example.config;
 
-import com.jacknie.example.custom.CustomLookupStrategy;
-import com.jacknie.example.custom.CustomMutableAclService;
-import com.jacknie.example.custom.EnhancedMutableAclService;
-import com.jacknie.example.custom.OperationsImpl;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.jacknie.example.custom.*;
 import com.jacknie.example.repository.acl.AclClassRepository;
 import com.jacknie.example.repository.acl.AclEntryRepository;
+import com.jacknie.example.repository.acl.AclObjectIdentityClosureRepository;
+import com.jacknie.example.repository.acl.AclObjectIdentityCustomRepositoryImpl;
 import com.jacknie.example.repository.acl.AclObjectIdentityRepository;
 import com.jacknie.example.repository.acl.AclSidRepository;
 import lombok.RequiredArgsConstructor;
+import org.springframework.boot.ApplicationRunner;
 import org.springframework.boot.autoconfigure.security.servlet.PathRequest;
-import org.springframework.cache.Cache;
-import org.springframework.cache.concurrent.ConcurrentMapCache;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.core.convert.support.GenericConversionService;
 import org.springframework.security.access.PermissionEvaluator;
+import org.springframework.security.access.expression.method.MethodSecurityExpressionHandler;
 import org.springframework.security.acls.AclPermissionEvaluator;
 import org.springframework.security.acls.domain.*;
-import org.springframework.security.acls.jdbc.LookupStrategy;
-import org.springframework.security.acls.model.AclCache;
 import org.springframework.security.acls.model.PermissionGrantingStrategy;
 import org.springframework.security.config.annotation.method.configuration.EnableGlobalMethodSecurity;
 import org.springframework.security.config.annotation.web.builders.WebSecurity;
 import org.springframework.security.config.annotation.web.configuration.WebSecurityConfigurerAdapter;
 import org.springframework.security.core.authority.SimpleGrantedAuthority;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
 
 @Configuration
+@EnableConfigurationProperties(AclProperties.class)
 @EnableGlobalMethodSecurity(prePostEnabled = true, securedEnabled = true)
 @RequiredArgsConstructor
 public class WebSecurityConfiguration extends WebSecurityConfigurerAdapter {
@@ -34,7 +37,11 @@ public class WebSecurityConfiguration extends WebSecurityConfigurerAdapter {
     private final AclClassRepository classRepository;
     private final AclSidRepository sidRepository;
     private final AclObjectIdentityRepository oidRepository;
+    private final AclObjectIdentityCustomRepositoryImpl oidRepositoryImpl;
+    private final AclObjectIdentityClosureRepository closureRepository;
     private final AclEntryRepository entryRepository;
+    private final AclProperties aclProperties;
+    private final PlatformTransactionManager transactionManager;
 
     @Override
     public void configure(WebSecurity web) throws Exception {
@@ -43,21 +50,88 @@ public class WebSecurityConfiguration extends WebSecurityConfigurerAdapter {
 
     @Bean
     public PermissionEvaluator permissionEvaluator() {
-        return new AclPermissionEvaluator(aclService());
+        PermissionEvaluator permissionEvaluator = new AclPermissionEvaluator(aclService());
+        if (aclProperties.isPushdownCheck()) {
+            PushdownPermissionEvaluator pushdownPermissionEvaluator = new PushdownPermissionEvaluator(permissionEvaluator, aclOperations(), aclCache());
+            pushdownPermissionEvaluator.setWarmUpThreshold(aclProperties.getPushdownWarmUpThreshold());
+            return pushdownPermissionEvaluator;
+        } else {
+            return permissionEvaluator;
+        }
     }
 
     @Bean
-    public EnhancedMutableAclService aclService() {
+    public MethodSecurityExpressionHandler methodSecurityExpressionHandler() {
+        AclPrefetchMethodSecurityExpressionHandler expressionHandler = new AclPrefetchMethodSecurityExpressionHandler(lookupStrategy());
+        expressionHandler.setPermissionEvaluator(permissionEvaluator());
+        return expressionHandler;
+    }
+
+    @Bean
+    public OperationsImpl aclOperations() {
+        GenericConversionService conversionService = new GenericConversionService();
+        conversionService.addConverter(String.class, Long.class, Long::parseLong);
+        TransactionTemplate newTransactionTemplate = new TransactionTemplate(transactionManager);
+        newTransactionTemplate.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        oidRepositoryImpl.setObjectIdNumberLookup(aclProperties.isObjectIdNumberLookup());
+        OperationsImpl operations = new OperationsImpl(classRepository, sidRepository, oidRepository, entryRepository, conversionService, newTransactionTemplate);
+        if (aclProperties.isClosureTable()) {
+            operations.setClosureRepository(closureRepository);
+        }
+        return operations;
+    }
+
+    @Bean
+    public CustomLookupStrategy lookupStrategy() {
         AuditLogger auditLogger = new ConsoleAuditLogger();
-        Cache cache = new ConcurrentMapCache("aclCache");
         PermissionGrantingStrategy permissionGrantingStrategy = new CumulativePermissionGrantingStrategy(auditLogger);
         AclAuthorizationStrategy aclAuthorizationStrategy = new AclAuthorizationStrategyImpl(new SimpleGrantedAuthority("ROLE_ADMIN"));
-        AclCache aclCache = new SpringCacheBasedAclCache(cache, permissionGrantingStrategy, aclAuthorizationStrategy);
-        GenericConversionService conversionService = new GenericConversionService();
-        conversionService.addConverter(String.class, Long.class, Long::parseLong);
-        OperationsImpl operations = new OperationsImpl(classRepository, sidRepository, oidRepository, entryRepository, conversionService);
-        LookupStrategy lookupStrategy = new CustomLookupStrategy(operations, aclCache, aclAuthorizationStrategy, permissionGrantingStrategy);
-        return new CustomMutableAclService(operations, lookupStrategy, aclCache);
+        CustomLookupStrategy lookupStrategy = new CustomLookupStrategy(aclOperations(), aclCache(), aclAuthorizationStrategy, permissionGrantingStrategy);
+        lookupStrategy.setAncestorLookupMode(AncestorLookupMode.LAZY);
+        return lookupStrategy;
+    }
+
+    @Bean
+    public EnhancedMutableAclService aclService() {
+        return new CustomMutableAclService(aclOperations(), lookupStrategy(), aclCache(), new TransactionTemplate(transactionManager));
+    }
+
+    @Bean
+    public ApplicationRunner aclClosureBackfillRunner() {
+        return args -> {
+            if (aclProperties.isClosureTable() && aclProperties.isClosureBackfill()) {
+                new TransactionTemplate(transactionManager).executeWithoutResult(status -> closureRepository.insertMissing());
+            }
+        };
+    }
+
+    @Bean
+    public ApplicationRunner aclObjectIdNumberBackfillRunner() {
+        return args -> {
+            if (aclProperties.isObjectIdNumberBackfill()) {
+                new TransactionTemplate(transactionManager).executeWithoutResult(status -> oidRepository.updateMissingObjectIdNumbers(1000));
+            }
+        };
+    }
+
+    @Bean
+    public EnhancedAclCache aclCache() {
+        AclProperties.Cache properties = aclProperties.getCache();
+        Caffeine<Object, Object> builder = Caffeine.newBuilder();
+        if (properties.getMaximumWeight() != null) {
+            builder.maximumWeight(properties.getMaximumWeight()).weigher(CaffeineAclCache::weigh);
+        } else {
+            builder.maximumSize(properties.getMaximumSize());
+        }
+        if (properties.getExpireAfterWrite() != null) {
+            builder.expireAfterWrite(properties.getExpireAfterWrite());
+        }
+        if (properties.getExpireAfterAccess() != null) {
+            builder.expireAfterAccess(properties.getExpireAfterAccess());
+        }
+        CaffeineAclCache aclCache = new CaffeineAclCache(builder);
+        aclCache.setMaximumInvalidations(properties.getMaximumInvalidations());
+        return aclCache;
     }
 
 }
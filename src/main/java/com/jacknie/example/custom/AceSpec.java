@@ -0,0 +1,42 @@
+package com.jacknie.example.custom;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.springframework.security.acls.model.Permission;
+import org.springframework.security.acls.model.Sid;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class AceSpec {
+
+    /**
+     * 보안 식별 정보
+     */
+    private Sid sid;
+
+    /**
+     * 권한
+     */
+    private Permission permission;
+
+    /**
+     * 권한 부여 여부
+     */
+    @Builder.Default
+    private boolean granting = true;
+
+    /**
+     * auditing 성공 여부
+     */
+    private boolean auditSuccess;
+
+    /**
+     * auditing 실패 여부
+     */
+    private boolean auditFailure;
+
+}
@@ -1,10 +1,12 @@
 package com.jacknie.example.custom;
 
+import org.springframework.lang.Nullable;
 import org.springframework.security.acls.domain.PrincipalSid;
-import org.springframework.security.acls.model.MutableAcl;
-import org.springframework.security.acls.model.ObjectIdentity;
+import org.springframework.security.acls.model.*;
 
+import java.util.Collection;
 import java.util.List;
+import java.util.Map;
 
 public interface AclOperations {
 
@@ -25,18 +27,69 @@ public interface AclOperations {
      */
     void createObjectIdentity(ObjectIdentity oid, PrincipalSid owner);
 
+    /**
+     * ACL 조회 또는 생성. 객체 식별 정보가 없으면 upsert 로 저장 하고, 이미 있으면 (동시에 저장 된 경우 포함) 저장 된 정보를 조회 한다.
+     * @param oid 객체 식별 정보
+     * @param owner 새로 저장 하는 경우의 소유자
+     * @return ACL 소스 정보
+     */
+    AclSource getOrCreateAcl(ObjectIdentity oid, Sid owner);
+
+    /**
+     * ACL 일괄 생성 (객체 식별 정보와 ACE 를 JDBC 배치로 저장)
+     * @param specs ACL 명세 목록 (소유자 필수)
+     * @return 생성 된 ACL 소스 정보 목록 (명세 순서)
+     * @throws AlreadyExistsException 이미 저장 된 객체 식별 정보가 있는 경우
+     * @throws NotFoundException 부모 객체 식별 정보가 저장 되어 있지 않은 경우
+     */
+    List<AclSource> createAcls(List<AclSpec> specs) throws AlreadyExistsException, NotFoundException;
+
+    /**
+     * 자식 ACL 생성 (객체 식별 정보 upsert 1회와 ACE JDBC 배치 저장, 부모는 조회 하지 않음)
+     * @param parentId 부모 객체 식별 정보 아이디
+     * @param spec ACL 명세 (소유자 필수)
+     * @return 생성 된 ACL 소스 정보
+     * @throws AlreadyExistsException 이미 저장 된 객체 식별 정보인 경우
+     */
+    AclSource createChildAcl(long parentId, AclSpec spec) throws AlreadyExistsException;
+
     /**
      * ACL 삭제 처리
      * @param oid 객체 식별 정보
      * @param deleteChildren 자식 삭제 처리 여부
+     * @return 삭제 된 ACL 중 자식이 함께 삭제 된 ACL 아이디 목록 (요청 된 ACL 이 첫번째, 자식이 없는 ACL 은 제외)
      */
-    void deleteAcl(ObjectIdentity oid, boolean deleteChildren);
+    List<Long> deleteAcl(ObjectIdentity oid, boolean deleteChildren);
+
+    /**
+     * 여러 ACL 에 한 SID 의 권한 일괄 부여.
+     * SID 의 권한 부여 ACE 가 있으면 마스크에 비트를 추가 하고, 없으면 마지막 순서에 ACE 를 추가 한다.
+     * SID 의 같은 권한 거부 ACE 가 있는 ACL 은 부여 해도 거부가 결정 되므로 변경 하지 않는다. (거부 ACE 를 먼저 삭제 해야 함)
+     * @param oids 객체 식별 정보 목록
+     * @param sid 보안 식별 정보
+     * @param permission 권한
+     * @return 변경 된 ACL 아이디 목록
+     * @throws NotFoundException 저장 되지 않은 객체 식별 정보가 있는 경우
+     */
+    List<Long> grantPermission(Collection<ObjectIdentity> oids, Sid sid, Permission permission) throws NotFoundException;
+
+    /**
+     * 여러 ACL 에서 한 SID 의 권한 일괄 회수.
+     * SID 의 권한 부여 ACE 마스크에서 비트를 제거 하고, 마스크가 0 이 된 ACE 는 삭제 한다.
+     * @param oids 객체 식별 정보 목록
+     * @param sid 보안 식별 정보
+     * @param permission 권한
+     * @return 변경 된 ACL 아이디 목록
+     * @throws NotFoundException 저장 되지 않은 객체 식별 정보가 있는 경우
+     */
+    List<Long> revokePermission(Collection<ObjectIdentity> oids, Sid sid, Permission permission) throws NotFoundException;
 
     /**
      * ACL 수정 처리
      * @param acl ACL 객체
+     * @return ACE 순서대로 저장 된 ACE 아이디 목록
      */
-    void updateAcl(MutableAcl acl);
+    List<Long> updateAcl(MutableAcl acl);
 
     /**
      * 객체 식별 정보의 자식 목록을 조회
@@ -45,4 +98,24 @@ public interface AclOperations {
      */
     List<ObjectIdentity> findChildren(ObjectIdentity oid);
 
+
+    /**
+     * 클래스의 객체 식별 정보 중 보안 식별 정보 목록에 권한이 부여 된 목록을 관리 아이디 순서로 조회 (상속 되는 조상 ACL 포함).
+     * 보안 식별 정보의 권한 부여 ACE 에서 시작 해서 찾은 후보만 검사 하며, 목록이 size 만큼 채워지거나 후보가 없을 때 까지 조회 한다.
+     * @param type 클래스 이름
+     * @param sids 보안 식별 정보 목록 (순서가 우선 순위)
+     * @param permission 권한
+     * @param cursor 이전 조회 결과의 다음 목록 조회 기준 (처음 조회 하면 null)
+     * @param size 조회 할 최대 개수
+     * @return 권한이 부여 된 객체 식별 정보 목록
+     */
+    KeysetSlice<ObjectIdentity> findPermittedObjectIdentities(String type, List<Sid> sids, Permission permission, @Nullable Long cursor, int size);
+
+    /**
+     * 객체 식별 정보에 권한이 있는 보안 식별 정보 별 유효 권한 마스크 조회 (상속 되는 조상 ACL 포함).
+     * 권한 비트 별로 보안 식별 정보 하나만 검사 했을 때 부여 되는 비트를 모은 마스크이며, 권한 인가 정보는 사용자로 펼치지 않는다.
+     * @param oid 객체 식별 정보
+     * @return 보안 식별 정보 별 유효 권한 마스크 맵 (ACE 순서, 부여 된 비트가 없는 보안 식별 정보는 제외)
+     */
+    Map<Sid, Integer> findEffectiveMasks(ObjectIdentity oid);
 }
@@ -0,0 +1,68 @@
+package com.jacknie.example.custom;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.expression.EvaluationContext;
+import org.springframework.expression.Expression;
+import org.springframework.security.access.expression.method.DefaultMethodSecurityExpressionHandler;
+import org.springframework.security.acls.domain.IdentityUnavailableException;
+import org.springframework.security.acls.domain.ObjectIdentityRetrievalStrategyImpl;
+import org.springframework.security.acls.jdbc.LookupStrategy;
+import org.springframework.security.acls.model.ObjectIdentity;
+import org.springframework.security.acls.model.ObjectIdentityRetrievalStrategy;
+import org.springframework.util.Assert;
+
+import java.util.*;
+
+/**
+ * {@code @PreFilter}, {@code @PostFilter} 의 대상 컬렉션 요소들의 ACL 을 미리 일괄 조회 하는 expression handler.
+ * 요소 마다 실행 되는 {@code hasPermission(filterObject, ...)} 검사는 캐시 된 ACL 만 사용 하게 된다.
+ */
+@RequiredArgsConstructor
+public class AclPrefetchMethodSecurityExpressionHandler extends DefaultMethodSecurityExpressionHandler {
+
+    private final LookupStrategy lookupStrategy;
+
+    private ObjectIdentityRetrievalStrategy objectIdentityRetrievalStrategy = new ObjectIdentityRetrievalStrategyImpl();
+
+    @Override
+    public Object filter(Object filterTarget, Expression filterExpression, EvaluationContext ctx) {
+        prefetch(filterTarget);
+        return super.filter(filterTarget, filterExpression, ctx);
+    }
+
+    public final void setObjectIdentityRetrievalStrategy(ObjectIdentityRetrievalStrategy objectIdentityRetrievalStrategy) {
+        Assert.notNull(objectIdentityRetrievalStrategy, "objectIdentityRetrievalStrategy cannot be null");
+        this.objectIdentityRetrievalStrategy = objectIdentityRetrievalStrategy;
+    }
+
+    /**
+     * 필터 대상 요소들의 ACL 일괄 조회 (조회 된 ACL 은 캐시에 저장 되고, 없는 ACL 은 무시)
+     * @param filterTarget 필터 대상 (컬렉션, 배열 외에는 조회 하지 않음)
+     */
+    private void prefetch(Object filterTarget) {
+        Collection<?> elements;
+        if (filterTarget instanceof Collection<?> collection) {
+            elements = collection;
+        } else if (filterTarget instanceof Object[] array) {
+            elements = Arrays.asList(array);
+        } else {
+            return;
+        }
+
+        Set<ObjectIdentity> oids = new LinkedHashSet<>();
+        for (Object element : elements) {
+            if (element == null) {
+                continue;
+            }
+            try {
+                oids.add(objectIdentityRetrievalStrategy.getObjectIdentity(element));
+            } catch (IdentityUnavailableException e) {
+                // Not a domain object, so the expression does not check its ACL either
+                return;
+            }
+        }
+        if (!oids.isEmpty()) {
+            lookupStrategy.readAclsById(new ArrayList<>(oids), Collections.emptyList());
+        }
+    }
+}
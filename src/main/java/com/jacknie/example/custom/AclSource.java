@@ -1,5 +1,6 @@
 package com.jacknie.example.custom;
 
+import com.jacknie.example.repository.acl.AclSourceAcePart;
 import lombok.AllArgsConstructor;
 import lombok.Builder;
 import lombok.Data;
@@ -7,6 +8,8 @@ import lombok.NoArgsConstructor;
 import org.springframework.lang.Nullable;
 
 import java.io.Serializable;
+import java.util.Collections;
+import java.util.List;
 
 @Data
 @NoArgsConstructor
@@ -51,38 +54,9 @@ public class AclSource {
     private String aclSid;
 
     /**
-     * 엔트리 보안 식별 정보
+     * ACE 정보 목록 (ACE 순서로 정렬)
      */
-    private String aceSid;
-
-    /**
-     * 엔트리 아이디
-     */
-    private long aceId;
-
-    /**
-     * 엔트리 보안 식별 타입
-     */
-    private SidType aceSidType;
-
-    /**
-     * 마스킹 값
-     */
-    private int mask;
-
-    /**
-     * 권한 부여 여부
-     */
-    private boolean granting;
-
-    /**
-     * auditing 성공 여부
-     */
-    private boolean auditSuccess;
-
-    /**
-     * auditing 실패 여부
-     */
-    private boolean auditFailure;
+    @Builder.Default
+    private List<AclSourceAcePart> aces = Collections.emptyList();
 
 }
@@ -0,0 +1,49 @@
+package com.jacknie.example.custom;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.springframework.lang.Nullable;
+import org.springframework.security.acls.model.ObjectIdentity;
+import org.springframework.security.acls.model.Sid;
+
+import java.util.Collections;
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder(toBuilder = true)
+public class AclSpec {
+
+    /**
+     * 객체 식별 정보
+     */
+    private ObjectIdentity objectIdentity;
+
+    /**
+     * 부모 객체 식별 정보 (이미 저장 되어 있거나 같은 요청에서 앞서 생성 되어야 함)
+     */
+    @Nullable
+    private ObjectIdentity parent;
+
+    /**
+     * 소유자 보안 식별 정보 (없으면 현재 사용자)
+     */
+    @Nullable
+    private Sid owner;
+
+    /**
+     * 부모의 ACE 목록이 ACL 로 부터 상속 여부
+     */
+    @Builder.Default
+    private boolean entriesInheriting = true;
+
+    /**
+     * 초기 ACE 목록 (ACE 순서로 저장)
+     */
+    @Builder.Default
+    private List<AceSpec> aces = Collections.emptyList();
+
+}
@@ -0,0 +1,19 @@
+package com.jacknie.example.custom;
+
+public enum AncestorLookupMode {
+
+    /**
+     * 계층 단위로 부모 ACL 을 반복 조회
+     */
+    ITERATIVE,
+
+    /**
+     * 재귀 쿼리로 요청 된 ACL 과 모든 조상 ACL 을 한번에 조회
+     */
+    RECURSIVE,
+
+    /**
+     * 요청 된 ACL 만 조회 하고, 부모 ACL 은 권한 검사에서 필요 할 때 조회 (대기 중인 부모 ACL 들과 함께 일괄 조회)
+     */
+    LAZY
+}
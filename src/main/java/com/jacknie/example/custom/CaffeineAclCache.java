@@ -0,0 +1,254 @@
+package com.jacknie.example.custom;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
+import com.github.benmanes.caffeine.cache.stats.ConcurrentStatsCounter;
+import org.springframework.security.acls.model.Acl;
+import org.springframework.security.acls.model.MutableAcl;
+import org.springframework.security.acls.model.ObjectIdentity;
+import org.springframework.util.Assert;
+
+import java.io.Serializable;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentNavigableMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 크기(또는 ACE 개수 기준 가중치)가 제한 되는 ACL 캐시.
+ * ACL 은 아이디로 한번만 저장 되며, 객체 식별 정보는 아이디를 찾기 위한 색인으로만 저장 된다.
+ * 캐시 된 ACL 은 불러오기 시작한 세대를 함께 저장 하고, 조회 시 자신과 상위 ACL 들의 무효화 세대보다
+ * 먼저 불러온 ACL 이면 만료 된 것으로 처리 한다.
+ */
+public class CaffeineAclCache implements EnhancedAclCache {
+
+    private final ConcurrentStatsCounter statsCounter = new ConcurrentStatsCounter();
+    private final AtomicLong generation = new AtomicLong();
+    private final AtomicLong generationFloor = new AtomicLong();
+    private final Cache<Serializable, CachedAcl> acls;
+    private final Cache<ObjectIdentity, Serializable> aclIds;
+
+    /**
+     * ACL 아이디 별 마지막 무효화 세대
+     */
+    private final Map<Serializable, Long> invalidations = new ConcurrentHashMap<>();
+
+    /**
+     * 무효화 세대 순서로 정렬 된 ACL 아이디 (가장 오래된 세대 부터 제거)
+     */
+    private final ConcurrentNavigableMap<Long, Serializable> invalidationOrder = new ConcurrentSkipListMap<>();
+
+    /**
+     * 보관 할 최대 무효화 세대 개수 (넘치면 가장 오래된 세대 부터 제거 하고, 제거 된 세대 이전에 불러온 ACL 은 모두 만료)
+     */
+    private int maximumInvalidations = 100_000;
+
+    /**
+     * @param builder 크기, 가중치, 만료 시간 등이 설정 된 캐시 builder
+     */
+    public CaffeineAclCache(Caffeine<Object, Object> builder) {
+        Assert.notNull(builder, "builder cannot be null");
+        this.aclIds = Caffeine.newBuilder().build();
+        this.acls = builder
+            .recordStats(() -> statsCounter)
+            .<Serializable, CachedAcl>evictionListener((id, cached, cause) -> {
+                if (cached != null) {
+                    aclIds.asMap().remove(cached.acl().getObjectIdentity(), id);
+                }
+            })
+            .build();
+    }
+
+    /**
+     * 캐시 용량 가중치 (ACL 1 + ACE 개수)
+     * @param id ACL 아이디
+     * @param value 캐시 된 값
+     * @return 가중치
+     */
+    public static int weigh(Object id, Object value) {
+        MutableAcl acl = ((CachedAcl) value).acl();
+        int entryCount = acl instanceof CompactAcl compactAcl ? compactAcl.getEntryCount() : acl.getEntries().size();
+        return 1 + entryCount;
+    }
+
+    public final void setMaximumInvalidations(int maximumInvalidations) {
+        Assert.isTrue(maximumInvalidations > 0, "maximumInvalidations must be greater than 0");
+        this.maximumInvalidations = maximumInvalidations;
+    }
+
+    @Override
+    public void evictFromCache(Serializable pk) {
+        Assert.notNull(pk, "Primary key (identifier) required");
+        CachedAcl cached = acls.asMap().remove(pk);
+        if (cached != null) {
+            aclIds.asMap().remove(cached.acl().getObjectIdentity(), pk);
+        }
+    }
+
+    @Override
+    public void evictFromCache(ObjectIdentity oid) {
+        Assert.notNull(oid, "ObjectIdentity required");
+        Serializable id = aclIds.asMap().remove(oid);
+        if (id != null) {
+            acls.invalidate(id);
+        }
+    }
+
+    @Override
+    public void evictFromCacheIncludingChildren(Serializable pk) {
+        Assert.notNull(pk, "Primary key (identifier) required");
+        long invalidated = generation.incrementAndGet();
+        invalidations.compute(pk, (id, previous) -> {
+            // A newer invalidation that raced ahead is kept
+            if (previous != null && previous > invalidated) {
+                return previous;
+            }
+            if (previous != null) {
+                invalidationOrder.remove(previous, id);
+            }
+            invalidationOrder.put(invalidated, id);
+            return invalidated;
+        });
+        trimInvalidations();
+        evictFromCache(pk);
+    }
+
+    @Override
+    public MutableAcl getFromCache(ObjectIdentity oid) {
+        Assert.notNull(oid, "ObjectIdentity required");
+        Serializable id = aclIds.getIfPresent(oid);
+        if (id == null) {
+            statsCounter.recordMisses(1);
+            return null;
+        } else {
+            return getFromCache(id);
+        }
+    }
+
+    @Override
+    public MutableAcl getFromCache(Serializable pk) {
+        Assert.notNull(pk, "Primary key (identifier) required");
+        CachedAcl cached = acls.asMap().get(pk);
+        if (cached == null) {
+            statsCounter.recordMisses(1);
+            return null;
+        } else if (isInvalidated(cached)) {
+            if (acls.asMap().remove(pk, cached)) {
+                aclIds.asMap().remove(cached.acl().getObjectIdentity(), pk);
+            }
+            statsCounter.recordMisses(1);
+            return null;
+        } else {
+            statsCounter.recordHits(1);
+            return cached.acl();
+        }
+    }
+
+    @Override
+    public boolean isCached(ObjectIdentity oid) {
+        Assert.notNull(oid, "ObjectIdentity required");
+        Serializable id = aclIds.asMap().get(oid);
+        if (id == null) {
+            return false;
+        }
+        CachedAcl cached = acls.asMap().get(id);
+        return cached != null && !isInvalidated(cached);
+    }
+
+    @Override
+    public void putInCache(MutableAcl acl) {
+        putInCache(acl, generation.get());
+    }
+
+    @Override
+    public void putInCache(MutableAcl acl, long generation) {
+        Assert.notNull(acl, "Acl required");
+        Assert.notNull(acl.getObjectIdentity(), "ObjectIdentity required");
+        Assert.notNull(acl.getId(), "ID required");
+        if (acl.getParentAcl() instanceof MutableAcl parentAcl) {
+            putInCache(parentAcl, generation);
+        }
+        acls.put(acl.getId(), new CachedAcl(acl, generation));
+        aclIds.put(acl.getObjectIdentity(), acl.getId());
+    }
+
+    @Override
+    public void clearCache() {
+        acls.invalidateAll();
+        aclIds.invalidateAll();
+    }
+
+    @Override
+    public long getGeneration() {
+        return generation.get();
+    }
+
+    @Override
+    public void recordLoad(long loadTime) {
+        statsCounter.recordLoadSuccess(loadTime);
+    }
+
+    @Override
+    public CacheStats getStatistics() {
+        return statsCounter.snapshot();
+    }
+
+    /**
+     * 최대 개수를 넘은 무효화 세대를 가장 오래된 세대 부터 제거.
+     * 제거 된 세대 이전에 불러온 ACL 은 그 세대의 무효화 여부를 알 수 없으므로 하한 세대를 제거 된 세대로 올린다.
+     */
+    private void trimInvalidations() {
+        while (invalidations.size() > maximumInvalidations) {
+            Map.Entry<Long, Serializable> oldest = invalidationOrder.pollFirstEntry();
+            if (oldest == null) {
+                return;
+            }
+            generationFloor.accumulateAndGet(oldest.getKey(), Math::max);
+            invalidations.remove(oldest.getValue(), oldest.getKey());
+        }
+    }
+
+    /**
+     * 캐시 된 ACL 또는 상위 ACL 중 하나라도 불러온 이후에 무효화 되었는지 확인.
+     * 필요 할 때 조회 되는 상위 ACL 은 조회 하지 않고 아이디로 확인 하고, 캐시 되어 있으면 그 상위 ACL 들도 확인 한다.
+     * @param cached 캐시 된 ACL
+     * @return 무효화 여부
+     */
+    private boolean isInvalidated(CachedAcl cached) {
+        if (cached.generation() < generationFloor.get()) {
+            return true;
+        }
+        Acl acl = cached.acl();
+        while (acl != null) {
+            Serializable id;
+            if (acl instanceof MutableAcl mutableAcl) {
+                id = mutableAcl.getId();
+            } else if (acl instanceof LazyAcl lazyAcl) {
+                id = lazyAcl.getId();
+            } else {
+                return false;
+            }
+            Long invalidated = invalidations.get(id);
+            if (invalidated != null && cached.generation() < invalidated) {
+                return true;
+            }
+            if (acl instanceof LazyAcl) {
+                // Continue with the ancestors of the cached parent, without resolving it
+                CachedAcl parent = acls.asMap().get(id);
+                acl = parent != null ? parent.acl().getParentAcl() : null;
+            } else {
+                acl = acl.getParentAcl();
+            }
+        }
+        return false;
+    }
+
+    /**
+     * 캐시 된 ACL 과 불러오기 시작한 세대
+     */
+    private record CachedAcl(MutableAcl acl, long generation) {
+    }
+
+}
@@ -0,0 +1,660 @@
+package com.jacknie.example.custom;
+
+import org.springframework.lang.Nullable;
+import org.springframework.security.acls.domain.AccessControlEntryImpl;
+import org.springframework.security.acls.domain.AclAuthorizationStrategy;
+import org.springframework.security.acls.domain.PermissionFactory;
+import org.springframework.security.acls.model.*;
+import org.springframework.util.Assert;
+
+import java.io.Serializable;
+import java.util.*;
+
+/**
+ * 병렬 primitive 배열(보안 식별 정보 인덱스, 마스킹 값, 플래그 비트)로 ACE 목록을 보관하는 ACL 구현체.
+ * ACE 테이블은 한번 생성 되면 변경 되지 않으며, 변경 요청 시 새로운 테이블로 교체 된다.
+ * 그러므로 {@link #copy()} 는 ACE 테이블을 공유하는 비용 없는 복사가 된다.
+ */
+public class CompactAcl implements MutableAcl, AuditableAcl, OwnershipAcl {
+
+    private static final long serialVersionUID = 1L;
+
+    private static final byte GRANTING = 1;
+    private static final byte AUDIT_SUCCESS = 1 << 1;
+    private static final byte AUDIT_FAILURE = 1 << 2;
+
+    private final ObjectIdentity objectIdentity;
+    private final Serializable id;
+    private final transient AclAuthorizationStrategy aclAuthorizationStrategy;
+    private final transient PermissionGrantingStrategy permissionGrantingStrategy;
+    private final transient PermissionFactory permissionFactory;
+
+    private volatile Acl parentAcl;
+    private volatile boolean entriesInheriting;
+    private volatile Sid owner;
+    private volatile AceTable aceTable;
+
+    private CompactAcl(
+        ObjectIdentity objectIdentity,
+        Serializable id,
+        AclAuthorizationStrategy aclAuthorizationStrategy,
+        PermissionGrantingStrategy permissionGrantingStrategy,
+        PermissionFactory permissionFactory,
+        @Nullable Acl parentAcl,
+        boolean entriesInheriting,
+        Sid owner,
+        AceTable aceTable
+    ) {
+        Assert.notNull(objectIdentity, "Object Identity required");
+        Assert.notNull(id, "Id required");
+        Assert.notNull(aclAuthorizationStrategy, "AclAuthorizationStrategy required");
+        Assert.notNull(permissionGrantingStrategy, "PermissionGrantingStrategy required");
+        Assert.notNull(permissionFactory, "PermissionFactory required");
+        Assert.notNull(owner, "Owner required");
+        this.objectIdentity = objectIdentity;
+        this.id = id;
+        this.aclAuthorizationStrategy = aclAuthorizationStrategy;
+        this.permissionGrantingStrategy = permissionGrantingStrategy;
+        this.permissionFactory = permissionFactory;
+        this.parentAcl = parentAcl;
+        this.entriesInheriting = entriesInheriting;
+        this.owner = owner;
+        this.aceTable = aceTable;
+    }
+
+    public static Builder builder() {
+        return new Builder();
+    }
+
+    /**
+     * ACE 테이블을 공유하는 복사본 생성
+     * @return 복사본
+     */
+    public CompactAcl copy() {
+        return withParent(parentAcl);
+    }
+
+    /**
+     * 부모 ACL 만 교체 된 복사본 생성 (권한 검사 없음, ACL 조회 시 부모 연결 용도)
+     * @param parentAcl 부모 ACL
+     * @return 복사본
+     */
+    CompactAcl withParent(@Nullable Acl parentAcl) {
+        return new CompactAcl(
+            objectIdentity,
+            id,
+            aclAuthorizationStrategy,
+            permissionGrantingStrategy,
+            permissionFactory,
+            parentAcl,
+            entriesInheriting,
+            owner,
+            aceTable
+        );
+    }
+
+    /**
+     * 저장 후 부여 된 ACE 아이디가 반영 된 복사본 생성 (권한 검사 없음, 캐시 갱신 용도)
+     * @param aceIds ACE 순서대로 저장 된 ACE 아이디 목록
+     * @return 복사본
+     */
+    CompactAcl withAceIds(List<Long> aceIds) {
+        AceTable table = aceTable;
+        Assert.isTrue(aceIds.size() == table.size(), "aceIds must match the ACE count");
+        return new CompactAcl(
+            objectIdentity,
+            id,
+            aclAuthorizationStrategy,
+            permissionGrantingStrategy,
+            permissionFactory,
+            parentAcl,
+            entriesInheriting,
+            owner,
+            table.withAceIds(aceIds.stream().mapToLong(Long::longValue).toArray())
+        );
+    }
+
+    @Override
+    public List<AccessControlEntry> getEntries() {
+        AceTable table = aceTable;
+        List<AccessControlEntry> entries = new ArrayList<>(table.size());
+        for (int i = 0; i < table.size(); i++) {
+            entries.add(new AccessControlEntryImpl(
+                table.aceIds[i] == 0 ? null : table.aceIds[i],
+                this,
+                table.sids[table.sidIndexes[i]],
+                permissionFactory.buildFromMask(table.masks[i]),
+                (table.flags[i] & GRANTING) != 0,
+                (table.flags[i] & AUDIT_SUCCESS) != 0,
+                (table.flags[i] & AUDIT_FAILURE) != 0
+            ));
+        }
+        return Collections.unmodifiableList(entries);
+    }
+
+    /**
+     * @return ACE 개수
+     */
+    public int getEntryCount() {
+        return aceTable.size();
+    }
+
+    @Override
+    public Serializable getId() {
+        return id;
+    }
+
+    @Override
+    public ObjectIdentity getObjectIdentity() {
+        return objectIdentity;
+    }
+
+    @Override
+    public Sid getOwner() {
+        return owner;
+    }
+
+    @Override
+    public Acl getParentAcl() {
+        return parentAcl;
+    }
+
+    @Override
+    public boolean isEntriesInheriting() {
+        return entriesInheriting;
+    }
+
+    @Override
+    public boolean isGranted(List<Permission> permission, List<Sid> sids, boolean administrativeMode)
+        throws NotFoundException, UnloadedSidException {
+        Assert.notEmpty(permission, "Permissions required");
+        Assert.notEmpty(sids, "SIDs required");
+        return permissionGrantingStrategy.isGranted(this, permission, sids, administrativeMode);
+    }
+
+    /**
+     * SID 별 권한 부여/거부 마스크 표를 사용 할 수 있는지 확인.
+     * 비트가 하나인 권한만 검사 하고, auditing 할 ACE 가 없어야 (어떤 ACE 로 결정 되었는지 필요 없어야) 한다.
+     * @param permission 권한 목록
+     * @return 사용 가능 여부
+     */
+    public boolean isMaskTableApplicable(List<Permission> permission) {
+        for (Permission p : permission) {
+            if (Integer.bitCount(p.getMask()) != 1) {
+                return false;
+            }
+        }
+        return !aceTable.maskTable().audited;
+    }
+
+    /**
+     * SID 별 권한 부여/거부 마스크 표로 이 ACL 의 ACE 만 검사 (상위 ACL 은 검사 하지 않음).
+     * ACE 일치 규칙은 CumulativePermissionGrantingStrategy 와 같고, 표는 ACE 테이블 마다 한번만 만들어 진다.
+     * @param permission 권한 목록 (비트가 하나인 권한)
+     * @param sids 보안 식별 정보 목록
+     * @return 권한 부여 여부 (일치 하는 ACE 가 없으면 null)
+     */
+    @Nullable
+    public Boolean findGranted(List<Permission> permission, List<Sid> sids) {
+        MaskTable table = aceTable.maskTable();
+        boolean rejected = false;
+        for (Permission p : permission) {
+            int mask = p.getMask();
+            for (Sid sid : sids) {
+                Integer sidIndex = table.sidIndexMap.get(sid);
+                if (sidIndex == null) {
+                    continue;
+                }
+                if ((table.grantMasks[sidIndex] & mask) != 0) {
+                    return true;
+                }
+                if ((table.denyMasks[sidIndex] & mask) != 0) {
+                    // Failure for this permission, so stop search
+                    rejected = true;
+                    break;
+                }
+            }
+        }
+        return rejected ? Boolean.FALSE : null;
+    }
+
+    @Override
+    public boolean isSidLoaded(List<Sid> sids) {
+        // This implementation always loads all SIDs
+        return true;
+    }
+
+    @Override
+    public void deleteAce(int aceIndex) throws NotFoundException {
+        aclAuthorizationStrategy.securityCheck(this, AclAuthorizationStrategy.CHANGE_GENERAL);
+        AceTable table = aceTable;
+        verifyAceIndexExists(table, aceIndex);
+        aceTable = table.remove(aceIndex);
+    }
+
+    @Override
+    public void insertAce(int atIndexLocation, Permission permission, Sid sid, boolean granting) throws NotFoundException {
+        aclAuthorizationStrategy.securityCheck(this, AclAuthorizationStrategy.CHANGE_GENERAL);
+        Assert.notNull(permission, "Permission required");
+        Assert.notNull(sid, "Sid required");
+        AceTable table = aceTable;
+        if (atIndexLocation < 0) {
+            throw new NotFoundException("atIndexLocation must be greater than or equal to zero");
+        }
+        if (atIndexLocation > table.size()) {
+            throw new NotFoundException("atIndexLocation must be less than or equal to the size of the AccessControlEntry collection");
+        }
+        aceTable = table.insert(atIndexLocation, sid, permission.getMask(), granting ? GRANTING : 0);
+    }
+
+    @Override
+    public void updateAce(int aceIndex, Permission permission) throws NotFoundException {
+        aclAuthorizationStrategy.securityCheck(this, AclAuthorizationStrategy.CHANGE_GENERAL);
+        Assert.notNull(permission, "Permission required");
+        AceTable table = aceTable;
+        verifyAceIndexExists(table, aceIndex);
+        aceTable = table.update(aceIndex, permission.getMask(), table.flags[aceIndex]);
+    }
+
+    @Override
+    public void updateAuditing(int aceIndex, boolean auditSuccess, boolean auditFailure) {
+        aclAuthorizationStrategy.securityCheck(this, AclAuthorizationStrategy.CHANGE_AUDITING);
+        AceTable table = aceTable;
+        verifyAceIndexExists(table, aceIndex);
+        byte flags = (byte) (table.flags[aceIndex] & GRANTING);
+        if (auditSuccess) {
+            flags |= AUDIT_SUCCESS;
+        }
+        if (auditFailure) {
+            flags |= AUDIT_FAILURE;
+        }
+        aceTable = table.update(aceIndex, table.masks[aceIndex], flags);
+    }
+
+    @Override
+    public void setOwner(Sid newOwner) {
+        aclAuthorizationStrategy.securityCheck(this, AclAuthorizationStrategy.CHANGE_OWNERSHIP);
+        Assert.notNull(newOwner, "Owner required");
+        this.owner = newOwner;
+    }
+
+    @Override
+    public void setEntriesInheriting(boolean entriesInheriting) {
+        aclAuthorizationStrategy.securityCheck(this, AclAuthorizationStrategy.CHANGE_GENERAL);
+        this.entriesInheriting = entriesInheriting;
+    }
+
+    @Override
+    public void setParent(Acl newParent) {
+        aclAuthorizationStrategy.securityCheck(this, AclAuthorizationStrategy.CHANGE_GENERAL);
+        Assert.isTrue(newParent == null || !newParent.equals(this), "Cannot be the parent of yourself");
+        this.parentAcl = newParent;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (!(o instanceof CompactAcl that)) return false;
+        return entriesInheriting == that.entriesInheriting
+            && Objects.equals(id, that.id)
+            && Objects.equals(objectIdentity, that.objectIdentity)
+            && Objects.equals(owner, that.owner)
+            && Objects.equals(parentAcl, that.parentAcl)
+            && aceTable.contentEquals(that.aceTable);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(id, objectIdentity);
+    }
+
+    @Override
+    public String toString() {
+        return "CompactAcl[" +
+            "id: " + id + "; " +
+            "objectIdentity: " + objectIdentity + "; " +
+            "owner: " + owner + "; " +
+            "aces: " + aceTable.size() + "; " +
+            "inheriting: " + entriesInheriting + "; " +
+            "parent: " + toParentString(parentAcl) +
+            "]";
+    }
+
+    /**
+     * 부모 ACL 을 조회 하지 않는 문자열 표현 (아직 조회 되지 않은 부모는 자신의 문자열 표현 사용)
+     * @param parentAcl 부모 ACL
+     * @return 문자열 표현
+     */
+    private static String toParentString(@Nullable Acl parentAcl) {
+        if (parentAcl == null) {
+            return "Null";
+        } else if (parentAcl instanceof CompactAcl compactAcl) {
+            return compactAcl.objectIdentity.toString();
+        } else {
+            return parentAcl.toString();
+        }
+    }
+
+    private void verifyAceIndexExists(AceTable table, int aceIndex) {
+        if (aceIndex < 0) {
+            throw new NotFoundException("aceIndex must be greater than or equal to zero");
+        }
+        if (aceIndex >= table.size()) {
+            throw new NotFoundException("aceIndex must refer to an index of the AccessControlEntry list. "
+                + "List size is " + table.size() + ", index was " + aceIndex);
+        }
+    }
+
+    /**
+     * 변경 되지 않는 ACE 테이블
+     */
+    private static final class AceTable implements Serializable {
+
+        private static final long serialVersionUID = 1L;
+
+        private static final AceTable EMPTY = new AceTable(new Sid[0], new long[0], new int[0], new int[0], new byte[0]);
+
+        /**
+         * 보안 식별 정보 목록 (중복 없음)
+         */
+        private final Sid[] sids;
+
+        /**
+         * ACE 아이디 목록 (0: 저장 되지 않은 ACE)
+         */
+        private final long[] aceIds;
+
+        /**
+         * ACE 별 보안 식별 정보 인덱스 목록
+         */
+        private final int[] sidIndexes;
+
+        /**
+         * ACE 별 마스킹 값 목록
+         */
+        private final int[] masks;
+
+        /**
+         * ACE 별 플래그 목록 (권한 부여 여부, auditing 성공/실패 여부)
+         */
+        private final byte[] flags;
+
+        /**
+         * 처음 권한 검사 시 만들어 지는 SID 별 권한 부여/거부 마스크 표
+         */
+        private transient volatile MaskTable maskTable;
+
+        private AceTable(Sid[] sids, long[] aceIds, int[] sidIndexes, int[] masks, byte[] flags) {
+            this.sids = sids;
+            this.aceIds = aceIds;
+            this.sidIndexes = sidIndexes;
+            this.masks = masks;
+            this.flags = flags;
+        }
+
+        int size() {
+            return aceIds.length;
+        }
+
+        AceTable insert(int index, Sid sid, int mask, byte flag) {
+            int sidIndex = Arrays.asList(sids).indexOf(sid);
+            Sid[] newSids = sids;
+            if (sidIndex < 0) {
+                sidIndex = sids.length;
+                newSids = Arrays.copyOf(sids, sids.length + 1);
+                newSids[sidIndex] = sid;
+            }
+            int size = size();
+            long[] newAceIds = new long[size + 1];
+            int[] newSidIndexes = new int[size + 1];
+            int[] newMasks = new int[size + 1];
+            byte[] newFlags = new byte[size + 1];
+            System.arraycopy(aceIds, 0, newAceIds, 0, index);
+            System.arraycopy(sidIndexes, 0, newSidIndexes, 0, index);
+            System.arraycopy(masks, 0, newMasks, 0, index);
+            System.arraycopy(flags, 0, newFlags, 0, index);
+            newSidIndexes[index] = sidIndex;
+            newMasks[index] = mask;
+            newFlags[index] = flag;
+            System.arraycopy(aceIds, index, newAceIds, index + 1, size - index);
+            System.arraycopy(sidIndexes, index, newSidIndexes, index + 1, size - index);
+            System.arraycopy(masks, index, newMasks, index + 1, size - index);
+            System.arraycopy(flags, index, newFlags, index + 1, size - index);
+            return new AceTable(newSids, newAceIds, newSidIndexes, newMasks, newFlags);
+        }
+
+        AceTable remove(int index) {
+            int size = size();
+            long[] newAceIds = new long[size - 1];
+            int[] newSidIndexes = new int[size - 1];
+            int[] newMasks = new int[size - 1];
+            byte[] newFlags = new byte[size - 1];
+            System.arraycopy(aceIds, 0, newAceIds, 0, index);
+            System.arraycopy(sidIndexes, 0, newSidIndexes, 0, index);
+            System.arraycopy(masks, 0, newMasks, 0, index);
+            System.arraycopy(flags, 0, newFlags, 0, index);
+            System.arraycopy(aceIds, index + 1, newAceIds, index, size - index - 1);
+            System.arraycopy(sidIndexes, index + 1, newSidIndexes, index, size - index - 1);
+            System.arraycopy(masks, index + 1, newMasks, index, size - index - 1);
+            System.arraycopy(flags, index + 1, newFlags, index, size - index - 1);
+            return new AceTable(sids, newAceIds, newSidIndexes, newMasks, newFlags);
+        }
+
+        AceTable update(int index, int mask, byte flag) {
+            int[] newMasks = masks.clone();
+            byte[] newFlags = flags.clone();
+            newMasks[index] = mask;
+            newFlags[index] = flag;
+            return new AceTable(sids, aceIds, sidIndexes, newMasks, newFlags);
+        }
+
+        AceTable withAceIds(long[] newAceIds) {
+            return new AceTable(sids, newAceIds, sidIndexes, masks, flags);
+        }
+
+        MaskTable maskTable() {
+            MaskTable table = maskTable;
+            if (table == null) {
+                table = new MaskTable(this);
+                maskTable = table;
+            }
+            return table;
+        }
+
+        boolean contentEquals(AceTable other) {
+            if (size() != other.size()) {
+                return false;
+            }
+            for (int i = 0; i < size(); i++) {
+                if (aceIds[i] != other.aceIds[i]
+                    || masks[i] != other.masks[i]
+                    || flags[i] != other.flags[i]
+                    || !sids[sidIndexes[i]].equals(other.sids[other.sidIndexes[i]])) {
+                    return false;
+                }
+            }
+            return true;
+        }
+    }
+
+    /**
+     * SID 별 권한 부여/거부 마스크 표.
+     * 비트 마다 그 비트가 하나인 권한에 처음 일치 하는 ACE 가 권한 부여 ACE 이면 부여 마스크에,
+     * 권한 거부 ACE 이면 거부 마스크에 포함 된다. (권한 부여 ACE 는 비트가 겹치면, 권한 거부 ACE 는 마스크가 같으면 일치)
+     */
+    private static final class MaskTable {
+
+        /**
+         * 보안 식별 정보 별 인덱스 맵
+         */
+        private final Map<Sid, Integer> sidIndexMap;
+
+        /**
+         * 보안 식별 정보 별 권한 부여 마스크
+         */
+        private final int[] grantMasks;
+
+        /**
+         * 보안 식별 정보 별 권한 거부 마스크
+         */
+        private final int[] denyMasks;
+
+        /**
+         * auditing 할 ACE 존재 여부
+         */
+        private final boolean audited;
+
+        private MaskTable(AceTable table) {
+            Map<Sid, Integer> indexMap = new HashMap<>();
+            for (int i = 0; i < table.sids.length; i++) {
+                indexMap.put(table.sids[i], i);
+            }
+            int[] decidedMasks = new int[table.sids.length];
+            int[] grants = new int[table.sids.length];
+            int[] denies = new int[table.sids.length];
+            boolean anyAudited = false;
+            for (int i = 0; i < table.size(); i++) {
+                int sidIndex = table.sidIndexes[i];
+                int mask = table.masks[i];
+                if ((table.flags[i] & GRANTING) != 0) {
+                    int newBits = mask & ~decidedMasks[sidIndex];
+                    grants[sidIndex] |= newBits;
+                    decidedMasks[sidIndex] |= newBits;
+                } else if (Integer.bitCount(mask) == 1 && (decidedMasks[sidIndex] & mask) == 0) {
+                    denies[sidIndex] |= mask;
+                    decidedMasks[sidIndex] |= mask;
+                }
+                anyAudited |= (table.flags[i] & (AUDIT_SUCCESS | AUDIT_FAILURE)) != 0;
+            }
+            this.sidIndexMap = indexMap;
+            this.grantMasks = grants;
+            this.denyMasks = denies;
+            this.audited = anyAudited;
+        }
+    }
+
+    public static final class Builder {
+
+        private ObjectIdentity objectIdentity;
+        private Serializable id;
+        private AclAuthorizationStrategy aclAuthorizationStrategy;
+        private PermissionGrantingStrategy permissionGrantingStrategy;
+        private PermissionFactory permissionFactory;
+        private Acl parentAcl;
+        private boolean entriesInheriting = true;
+        private Sid owner;
+
+        private final List<Sid> sids = new ArrayList<>();
+        private final Map<Sid, Integer> sidIndexMap = new HashMap<>();
+        private long[] aceIds = new long[4];
+        private int[] sidIndexes = new int[4];
+        private int[] masks = new int[4];
+        private byte[] flags = new byte[4];
+        private int size = 0;
+
+        private Builder() {
+        }
+
+        public Builder objectIdentity(ObjectIdentity objectIdentity) {
+            this.objectIdentity = objectIdentity;
+            return this;
+        }
+
+        public Builder id(Serializable id) {
+            this.id = id;
+            return this;
+        }
+
+        public Builder aclAuthorizationStrategy(AclAuthorizationStrategy aclAuthorizationStrategy) {
+            this.aclAuthorizationStrategy = aclAuthorizationStrategy;
+            return this;
+        }
+
+        public Builder permissionGrantingStrategy(PermissionGrantingStrategy permissionGrantingStrategy) {
+            this.permissionGrantingStrategy = permissionGrantingStrategy;
+            return this;
+        }
+
+        public Builder permissionFactory(PermissionFactory permissionFactory) {
+            this.permissionFactory = permissionFactory;
+            return this;
+        }
+
+        public Builder parentAcl(@Nullable Acl parentAcl) {
+            this.parentAcl = parentAcl;
+            return this;
+        }
+
+        public Builder entriesInheriting(boolean entriesInheriting) {
+            this.entriesInheriting = entriesInheriting;
+            return this;
+        }
+
+        public Builder owner(Sid owner) {
+            this.owner = owner;
+            return this;
+        }
+
+        /**
+         * ACE 추가 (ACE 순서대로 호출)
+         * @param aceId ACE 아이디 (저장 되지 않은 ACE 는 null)
+         * @param sid 보안 식별 정보
+         * @param mask 마스킹 값
+         * @param granting 권한 부여 여부
+         * @param auditSuccess auditing 성공 여부
+         * @param auditFailure auditing 실패 여부
+         * @return builder
+         */
+        public Builder ace(@Nullable Long aceId, Sid sid, int mask, boolean granting, boolean auditSuccess, boolean auditFailure) {
+            Assert.notNull(sid, "Sid required");
+            if (size == aceIds.length) {
+                int capacity = size * 2;
+                aceIds = Arrays.copyOf(aceIds, capacity);
+                sidIndexes = Arrays.copyOf(sidIndexes, capacity);
+                masks = Arrays.copyOf(masks, capacity);
+                flags = Arrays.copyOf(flags, capacity);
+            }
+            Integer sidIndex = sidIndexMap.computeIfAbsent(sid, key -> {
+                sids.add(key);
+                return sids.size() - 1;
+            });
+            byte flag = 0;
+            if (granting) {
+                flag |= GRANTING;
+            }
+            if (auditSuccess) {
+                flag |= AUDIT_SUCCESS;
+            }
+            if (auditFailure) {
+                flag |= AUDIT_FAILURE;
+            }
+            aceIds[size] = aceId == null ? 0 : aceId;
+            sidIndexes[size] = sidIndex;
+            masks[size] = mask;
+            flags[size] = flag;
+            size++;
+            return this;
+        }
+
+        public CompactAcl build() {
+            AceTable table = size == 0 ? AceTable.EMPTY : new AceTable(
+                sids.toArray(new Sid[0]),
+                Arrays.copyOf(aceIds, size),
+                Arrays.copyOf(sidIndexes, size),
+                Arrays.copyOf(masks, size),
+                Arrays.copyOf(flags, size)
+            );
+            return new CompactAcl(
+                objectIdentity,
+                id,
+                aclAuthorizationStrategy,
+                permissionGrantingStrategy,
+                permissionFactory,
+                parentAcl,
+                entriesInheriting,
+                owner,
+                table
+            );
+        }
+    }
+}
@@ -1,29 +1,29 @@
 package com.jacknie.example.custom;
 
+import com.jacknie.example.repository.acl.AclSourceAcePart;
 import lombok.RequiredArgsConstructor;
-import org.springframework.security.acls.domain.*;
-import org.springframework.security.acls.jdbc.LookupStrategy;
+import org.springframework.security.acls.domain.AclAuthorizationStrategy;
+import org.springframework.security.acls.domain.DefaultPermissionFactory;
+import org.springframework.security.acls.domain.ObjectIdentityImpl;
+import org.springframework.security.acls.domain.PermissionFactory;
 import org.springframework.security.acls.model.*;
-import org.springframework.security.util.FieldUtils;
 import org.springframework.util.Assert;
-import org.springframework.util.ReflectionUtils;
 
 import java.io.Serializable;
-import java.lang.reflect.Field;
 import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
 
 @RequiredArgsConstructor
-public class CustomLookupStrategy implements LookupStrategy {
+public class CustomLookupStrategy implements EnhancedLookupStrategy {
 
     private final LookupOperations lookupOperations;
-    private final AclCache aclCache;
+    private final EnhancedAclCache aclCache;
     private final AclAuthorizationStrategy aclAuthorizationStrategy;
     private final PermissionGrantingStrategy grantingStrategy;
-    private final Field fieldAces = FieldUtils.getField(AclImpl.class, "aces");
-    private final Field fieldAcl = FieldUtils.getField(AccessControlEntryImpl.class, "acl");
 
     private PermissionFactory permissionFactory = new DefaultPermissionFactory();
     private int batchSize = 50;
+    private AncestorLookupMode ancestorLookupMode = AncestorLookupMode.ITERATIVE;
 
     @Override
     public Map<ObjectIdentity, Acl> readAclsById(List<ObjectIdentity> oids, List<Sid> sids) {
@@ -56,12 +56,17 @@ public class CustomLookupStrategy implements LookupStrategy {
             // Is it time to load from JDBC the currentBatchToLoad?
             if ((currentBatchToLoad.size() == batchSize) || ((i + 1) == oids.size())) {
                 if (currentBatchToLoad.size() > 0) {
+                    // Take the generation before reading, so that an invalidation
+                    // racing with this load leaves no stale ACL in the cache
+                    long generation = aclCache.getGeneration();
+                    long loadStartTime = System.nanoTime();
                     Map<ObjectIdentity, Acl> loadedBatch = lookupObjectIdentities(currentBatchToLoad, sids);
+                    aclCache.recordLoad(System.nanoTime() - loadStartTime);
                     // Add loaded batch (all elements 100% initialized) to results
                     result.putAll(loadedBatch);
                     // Add the loaded batch to the cache
                     for (Acl loadedAcl : loadedBatch.values()) {
-                        aclCache.putInCache((AclImpl) loadedAcl);
+                        aclCache.putInCache((MutableAcl) loadedAcl, generation);
                     }
                     currentBatchToLoad.clear();
                 }
@@ -70,11 +75,26 @@ public class CustomLookupStrategy implements LookupStrategy {
         return result;
     }
 
+    @Override
+    public Map<ObjectIdentity, Acl> loadAcls(List<AclSource> sources) {
+        long generation = aclCache.getGeneration();
+        Map<ObjectIdentity, Acl> result = toAcls(sources, Collections.emptyList());
+        for (Acl acl : result.values()) {
+            aclCache.putInCache((MutableAcl) acl, generation);
+        }
+        return result;
+    }
+
     public final void setBatchSize(int batchSize) {
         Assert.isTrue(batchSize >= 1, "BatchSize must be >= 1");
         this.batchSize = batchSize;
     }
 
+    public final void setAncestorLookupMode(AncestorLookupMode ancestorLookupMode) {
+        Assert.notNull(ancestorLookupMode, "ancestorLookupMode cannot be null");
+        this.ancestorLookupMode = ancestorLookupMode;
+    }
+
     public final void setPermissionFactory(PermissionFactory permissionFactory) {
         Assert.notNull(permissionFactory, "permissionFactory cannot be null");
         this.permissionFactory = permissionFactory;
@@ -83,26 +103,37 @@ public class CustomLookupStrategy implements LookupStrategy {
     private Map<ObjectIdentity, Acl> lookupObjectIdentities(Set<ObjectIdentity> oids, List<Sid> sids) {
         Assert.notEmpty(oids, "Must provide identities to lookup");
 
+        // Make the "acls" map contain all requested objectIdentities
+        // (including markers to each parent in the hierarchy)
+        // In RECURSIVE mode the whole ancestor chain is returned by a single query
+        List<AclSource> sources = ancestorLookupMode == AncestorLookupMode.RECURSIVE
+            ? lookupOperations.findAclSourcesWithAncestorsByObjectIdentityIn(oids)
+            : lookupOperations.findAclSourcesByObjectIdentityIn(oids);
+        return toAcls(sources, sids);
+    }
+
+    private Map<ObjectIdentity, Acl> toAcls(List<AclSource> sources, List<Sid> sids) {
         // contains Acls with StubAclParents
         Map<Serializable, Acl> acls = new HashMap<>();
 
-        // Make the "acls" map contain all requested objectIdentities
-        // (including markers to each parent in the hierarchy)
-        List<AclSource> sources = lookupOperations.findAclSourcesByObjectIdentityIn(oids);
         Set<Long> parentsToLookup = processAclSources(sids, acls, sources);
 
         // Lookup the parents, now that our JdbcTemplate has released the database
-        // connection (SEC-547)
-        if (parentsToLookup.size() > 0) {
+        // connection (SEC-547). In LAZY mode they are left as stubs to be resolved on demand,
+        // together with the other parents of this lookup
+        Set<Long> lazyParentIds = Collections.emptySet();
+        if (ancestorLookupMode == AncestorLookupMode.LAZY) {
+            lazyParentIds = ConcurrentHashMap.newKeySet();
+            lazyParentIds.addAll(parentsToLookup);
+        } else if (parentsToLookup.size() > 0) {
             lookupPrimaryKeys(acls, parentsToLookup, sids);
         }
 
         // Finally, convert our "acls" containing StubAclParents into true Acls
         Map<ObjectIdentity, Acl> resultMap = new HashMap<>();
-        for (Acl inputAcl : acls.values()) {
-            Assert.isInstanceOf(AclImpl.class, inputAcl, "Map should have contained an AclImpl");
-            Assert.isInstanceOf(Long.class, ((AclImpl) inputAcl).getId(), "Acl.getId() must be Long");
-            Acl result = convert(acls, (Long) ((AclImpl) inputAcl).getId());
+        for (Serializable id : new ArrayList<>(acls.keySet())) {
+            Assert.isInstanceOf(Long.class, id, "Acl.getId() must be Long");
+            Acl result = convert(acls, (Long) id, lazyParentIds);
             resultMap.put(result.getObjectIdentity(), result);
         }
 
@@ -110,9 +141,9 @@ public class CustomLookupStrategy implements LookupStrategy {
     }
 
     /**
-     * Locates the primary key IDs specified in "findNow", adding AclImpl instances with
+     * Locates the primary key IDs specified in "findNow", adding CompactAcl instances with
      * StubAclParents to the "acls" Map.
-     * @param acls the AclImpls (with StubAclParents)
+     * @param acls the CompactAcls (with StubAclParents)
      * @param findNow Long-based primary keys to retrieve
      * @param sids SIDs
      */
@@ -129,12 +160,15 @@ public class CustomLookupStrategy implements LookupStrategy {
     }
 
     private Set<Long> processAclSources(List<Sid> sids, Map<Serializable, Acl> acls, List<AclSource> sources) {
-        Set<Long> parentIdsToLookup = new HashSet<>(); // Set of parent_id Longs
-
+        // Convert every row into an Acl (albeit with a StubAclParent) first, so that
+        // parents returned within the same result set are never looked up again
         for (AclSource source : sources) {
-            // Convert current row into an Acl (albeit with a StubAclParent)
             convertCurrentResultIntoObject(acls, source);
+        }
+
+        Set<Long> parentIdsToLookup = new HashSet<>(); // Set of parent_id Longs
 
+        for (AclSource source : sources) {
             // Figure out if this row means we need to look up another parent
             Long parentId = source.getAclParentId();
 
@@ -164,155 +198,201 @@ public class CustomLookupStrategy implements LookupStrategy {
     private void convertCurrentResultIntoObject(Map<Serializable, Acl> acls, AclSource source) {
         long id = source.getAclId();
 
-        // If we already have an ACL for this ID, just create the ACE
-        Acl acl = acls.get(id);
-
-        if (acl == null) {
-            ObjectIdentity oid = new ObjectIdentityImpl(source.getType(), source.getIdentifier());
-            Sid owner = source.getAclSidType().createSid(source.getAclSid());
+        // If we already have an ACL for this ID, it has been converted with all ACEs
+        if (acls.containsKey(id)) {
+            return;
+        }
 
-            Acl parentAcl = null;
-            if (source.getAclParentId() != null) {
-                parentAcl = new StubAclParent(source.getAclParentId());
-            }
+        Acl parentAcl = null;
+        if (source.getAclParentId() != null) {
+            parentAcl = new StubAclParent(source.getAclParentId());
+        }
 
-            acl = new AclImpl(
-                    oid,
-                    id,
-                    aclAuthorizationStrategy,
-                    grantingStrategy,
-                    parentAcl,
-                    null,
-                    source.isEntriesInheriting(),
-                    owner
+        CompactAcl.Builder builder = CompactAcl.builder()
+                .objectIdentity(new ObjectIdentityImpl(source.getType(), source.getIdentifier()))
+                .id(id)
+                .aclAuthorizationStrategy(aclAuthorizationStrategy)
+                .permissionGrantingStrategy(grantingStrategy)
+                .permissionFactory(permissionFactory)
+                .parentAcl(parentAcl)
+                .entriesInheriting(source.isEntriesInheriting())
+                .owner(source.getAclSidType().createSid(source.getAclSid()));
+
+        // Add the ACEs to the ACL (ORDER BY maintains the ACE list order)
+        // It is permissible to have no ACEs in an ACL
+        for (AclSourceAcePart acePart : source.getAces()) {
+            builder.ace(
+                    acePart.getId(),
+                    acePart.getSidType().createSid(acePart.getSid()),
+                    Optional.ofNullable(acePart.getMask()).orElse(0),
+                    Boolean.TRUE.equals(acePart.getGranting()),
+                    Boolean.TRUE.equals(acePart.getAuditSuccess()),
+                    Boolean.TRUE.equals(acePart.getAuditFailure())
             );
-
-            acls.put(id, acl);
         }
 
-        // Add an extra ACE to the ACL (ORDER BY maintains the ACE list order)
-        // It is permissible to have no ACEs in an ACL (which is detected by a null
-        // ACE_SID)
-        if (source.getAceSid() != null) {
-            long aceId = source.getAceId();
-            Sid recipient = source.getAceSidType().createSid(source.getAceSid());
-
-            int mask = source.getMask();
-            Permission permission = permissionFactory.buildFromMask(mask);
+        acls.put(id, builder.build());
+    }
 
-            AccessControlEntryImpl ace = new AccessControlEntryImpl(
-                    aceId,
-                    acl,
-                    recipient,
-                    permission,
-                    source.isGranting(),
-                    source.isAuditSuccess(),
-                    source.isAuditFailure()
-            );
+    /**
+     * The final phase of converting the <code>Map</code> of <code>CompactAcl</code>
+     * instances which contain <code>StubAclParent</code>s into proper, valid
+     * <code>CompactAcl</code>s with correct ACL parents. Converted ACLs replace their
+     * input in the map, so a parent shared by many children is converted only once.
+     * @param inputMap the unconverted <code>CompactAcl</code>s
+     * @param currentIdentity the current<code>Acl</code> that we wish to convert
+     * @param lazyParentIds the parent ids left unresolved by this lookup (LAZY mode)
+     */
+    private Acl convert(Map<Serializable, Acl> inputMap, Long currentIdentity, Set<Long> lazyParentIds) {
+        Assert.notEmpty(inputMap, "InputMap required");
+        Assert.notNull(currentIdentity, "CurrentIdentity required");
 
-            // Field acesField = FieldUtils.getField(AclImpl.class, "aces");
-            List<AccessControlEntryImpl> aces = readAces((AclImpl) acl);
+        // Retrieve this Acl from the InputMap
+        Acl inputAcl = inputMap.get(currentIdentity);
+        Assert.notNull(inputAcl, "The inputMap did not contain the requested Acl");
 
-            // Add the ACE if it doesn't already exist in the ACL.aces field
-            if (!aces.contains(ace)) {
-                aces.add(ace);
-            }
+        // Cached ACLs are already fully converted
+        if (!(inputAcl.getParentAcl() instanceof StubAclParent stubAclParent)) {
+            return inputAcl;
         }
-    }
 
-    @SuppressWarnings("unchecked")
-    private List<AccessControlEntryImpl> readAces(AclImpl acl) {
-        try {
-            ReflectionUtils.makeAccessible(this.fieldAces);
-            return (List<AccessControlEntryImpl>) this.fieldAces.get(acl);
-        }
-        catch (IllegalAccessException ex) {
-            throw new IllegalStateException("Could not obtain AclImpl.aces field", ex);
+        // Lookup the parent (or defer it in LAZY mode), then link it without touching the shared ACE table
+        Acl parent;
+        if (ancestorLookupMode == AncestorLookupMode.LAZY && !inputMap.containsKey(stubAclParent.getId())) {
+            parent = new LazyAclParent(stubAclParent.getId(), lazyParentIds);
+        } else {
+            parent = convert(inputMap, stubAclParent.getId(), lazyParentIds);
         }
+        Assert.isInstanceOf(CompactAcl.class, inputAcl, "The inputMap contained a non-CompactAcl");
+        CompactAcl result = ((CompactAcl) inputAcl).withParent(parent);
+        inputMap.put(currentIdentity, result);
+        return result;
     }
 
-    private void setAclOnAce(AccessControlEntryImpl ace, AclImpl acl) {
-        try {
-            ReflectionUtils.makeAccessible(this.fieldAcl);
-            this.fieldAcl.set(ace, acl);
+    /**
+     * LAZY 모드에서 부모 ACL 조회.
+     * 캐시에 없으면 같은 조회에서 남겨진 다른 부모 ACL 들 중 캐시 되지 않은 부모와 함께 쿼리 1회로 조회 하고 캐시에 저장 한다.
+     * @param id 부모 ACL 아이디
+     * @param lazyParentIds 같은 조회에서 남겨진 부모 ACL 아이디 목록 (조회 된 아이디는 제거)
+     * @return 부모 ACL 객체
+     * @throws NotFoundException 부모 ACL 이 삭제 된 경우
+     */
+    private Acl resolveParent(Long id, Set<Long> lazyParentIds) throws NotFoundException {
+        lazyParentIds.remove(id);
+        MutableAcl cached = aclCache.getFromCache(id);
+        if (cached != null) {
+            return cached;
         }
-        catch (IllegalAccessException ex) {
-            throw new IllegalStateException("Could not or set AclImpl on AccessControlEntryImpl fields", ex);
+
+        Set<Long> ids = new HashSet<>();
+        ids.add(id);
+        Iterator<Long> iterator = lazyParentIds.iterator();
+        while (iterator.hasNext() && ids.size() < batchSize) {
+            Long siblingId = iterator.next();
+            iterator.remove();
+            if (aclCache.getFromCache(siblingId) == null) {
+                ids.add(siblingId);
+            }
         }
-    }
 
-    private void setAces(AclImpl acl, List<AccessControlEntryImpl> aces) {
-        try {
-            ReflectionUtils.makeAccessible(this.fieldAces);
-            this.fieldAces.set(acl, aces);
+        long generation = aclCache.getGeneration();
+        long loadStartTime = System.nanoTime();
+        Map<ObjectIdentity, Acl> loaded = toAcls(lookupOperations.findAclSourcesByObjectIdentityIdIn(ids), Collections.emptyList());
+        aclCache.recordLoad(System.nanoTime() - loadStartTime);
+        Acl result = null;
+        for (Acl loadedAcl : loaded.values()) {
+            MutableAcl mutableAcl = (MutableAcl) loadedAcl;
+            aclCache.putInCache(mutableAcl, generation);
+            if (id.equals(mutableAcl.getId())) {
+                result = mutableAcl;
+            }
         }
-        catch (IllegalAccessException ex) {
-            throw new IllegalStateException("Could not set AclImpl entries", ex);
+        if (result == null) {
+            throw new NotFoundException("Unable to find parent ACL information for id '" + id + "'");
         }
+        return result;
     }
 
     /**
-     * The final phase of converting the <code>Map</code> of <code>AclImpl</code>
-     * instances which contain <code>StubAclParent</code>s into proper, valid
-     * <code>AclImpl</code>s with correct ACL parents.
-     * @param inputMap the unconverted <code>AclImpl</code>s
-     * @param currentIdentity the current<code>Acl</code> that we wish to convert (this
-     * may be
+     * 권한 검사에서 필요 할 때 조회 되는 부모 ACL.
+     * 조회 한 부모 ACL 을 보관 하지 않고 매번 캐시를 통해 찾으므로, 부모 ACL 이 무효화 되어도 자식 ACL 은 유효 하다.
      */
-    private AclImpl convert(Map<Serializable, Acl> inputMap, Long currentIdentity) {
-        Assert.notEmpty(inputMap, "InputMap required");
-        Assert.notNull(currentIdentity, "CurrentIdentity required");
+    private class LazyAclParent implements LazyAcl {
 
-        // Retrieve this Acl from the InputMap
-        Acl uncastAcl = inputMap.get(currentIdentity);
-        Assert.isInstanceOf(AclImpl.class, uncastAcl, "The inputMap contained a non-AclImpl");
+        private static final long serialVersionUID = 1L;
+
+        private final Long id;
+        private final transient Set<Long> lazyParentIds;
 
-        AclImpl inputAcl = (AclImpl) uncastAcl;
+        LazyAclParent(Long id, Set<Long> lazyParentIds) {
+            this.id = id;
+            this.lazyParentIds = lazyParentIds;
+        }
 
-        Acl parent = inputAcl.getParentAcl();
+        @Override
+        public Serializable getId() {
+            return id;
+        }
+
+        private Acl resolve() {
+            return resolveParent(id, lazyParentIds);
+        }
+
+        /**
+         * 조회 전략 없이는 복원 할 수 없으므로 조회 한 부모 ACL 로 직렬화
+         * @return 부모 ACL
+         */
+        private Object writeReplace() {
+            return resolve();
+        }
+
+        @Override
+        public List<AccessControlEntry> getEntries() {
+            return resolve().getEntries();
+        }
 
-        if (parent instanceof StubAclParent stubAclParent) {
-            // Lookup the parent
-            parent = convert(inputMap, stubAclParent.getId());
+        @Override
+        public ObjectIdentity getObjectIdentity() {
+            return resolve().getObjectIdentity();
         }
 
-        // Now we have the parent (if there is one), create the true AclImpl
-        AclImpl result = new AclImpl(
-            inputAcl.getObjectIdentity(),
-            inputAcl.getId(),
-            this.aclAuthorizationStrategy,
-            this.grantingStrategy,
-            parent,
-            null,
-            inputAcl.isEntriesInheriting(),
-            inputAcl.getOwner()
-        );
+        @Override
+        public Sid getOwner() {
+            return resolve().getOwner();
+        }
 
-        // Copy the "aces" from the input to the destination
+        @Override
+        public Acl getParentAcl() {
+            return resolve().getParentAcl();
+        }
 
-        // Obtain the "aces" from the input ACL
-        List<AccessControlEntryImpl> aces = readAces(inputAcl);
+        @Override
+        public boolean isEntriesInheriting() {
+            return resolve().isEntriesInheriting();
+        }
 
-        // Create a list in which to store the "aces" for the "result" AclImpl instance
-        List<AccessControlEntryImpl> acesNew = new ArrayList<>();
+        @Override
+        public boolean isGranted(List<Permission> permission, List<Sid> sids, boolean administrativeMode)
+                throws NotFoundException, UnloadedSidException {
+            return resolve().isGranted(permission, sids, administrativeMode);
+        }
 
-        // Iterate over the "aces" input and replace each nested
-        // AccessControlEntryImpl.getAcl() with the new "result" AclImpl instance
-        // This ensures StubAclParent instances are removed, as per SEC-951
-        for (AccessControlEntryImpl ace : aces) {
-            setAclOnAce(ace, result);
-            acesNew.add(ace);
+        @Override
+        public boolean isSidLoaded(List<Sid> sids) {
+            return resolve().isSidLoaded(sids);
         }
 
-        // Finally, now that the "aces" have been converted to have the "result" AclImpl
-        // instance, modify the "result" AclImpl instance
-        setAces(result, acesNew);
+        @Override
+        public String toString() {
+            return "LazyAclParent[id: " + id + "]";
+        }
 
-        return result;
     }
 
     private static class StubAclParent implements Acl {
 
+        private static final long serialVersionUID = 1L;
+
         private final Long id;
 
         StubAclParent(Long id) {
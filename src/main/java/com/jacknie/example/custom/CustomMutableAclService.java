@@ -1,21 +1,26 @@
 package com.jacknie.example.custom;
 
 import lombok.RequiredArgsConstructor;
+import org.springframework.lang.Nullable;
 import org.springframework.security.acls.domain.PrincipalSid;
 import org.springframework.security.acls.jdbc.LookupStrategy;
 import org.springframework.security.acls.model.*;
 import org.springframework.security.core.Authentication;
 import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.transaction.support.TransactionOperations;
 import org.springframework.util.Assert;
 
-import java.util.List;
+import java.util.*;
 
 @RequiredArgsConstructor
 public class CustomMutableAclService extends CustomAclService implements EnhancedMutableAclService {
 
     private final AclOperations aclOperations;
-    private final LookupStrategy lookupStrategy;
-    private final AclCache aclCache;
+    private final EnhancedLookupStrategy lookupStrategy;
+    private final EnhancedAclCache aclCache;
+    private final TransactionOperations transactionOperations;
+
+    private int createChunkSize = 500;
 
     @Override
     public MutableAcl createAcl(ObjectIdentity oid) throws AlreadyExistsException {
@@ -39,27 +44,170 @@ public class CustomMutableAclService extends CustomAclService implements Enhance
         Acl acl = readAclById(oid);
         Assert.isInstanceOf(MutableAcl.class, acl, "MutableAcl should be been returned");
 
-        return (MutableAcl) acl;
+        return copyOf(acl);
+    }
+
+    @Override
+    public GrantedPermissions isGranted(List<ObjectIdentity> oids, List<Permission> permissions, List<Sid> sids) {
+        Assert.notNull(oids, "oids cannot be null");
+        Assert.notEmpty(permissions, "Permissions required");
+        Assert.notEmpty(sids, "SIDs required");
+        BitSet granted = new BitSet(oids.size() * permissions.size());
+        BitSet notFound = new BitSet(oids.size());
+        if (oids.isEmpty()) {
+            return new GrantedPermissions(permissions.size(), granted, notFound);
+        }
+
+        // One batched load; missing ACLs are absent from the map and marked as not found
+        Map<ObjectIdentity, Acl> acls = lookupStrategy.readAclsById(new ArrayList<>(new LinkedHashSet<>(oids)), sids);
+        List<List<Permission>> singlePermissions = permissions.stream().map(List::of).toList();
+        for (int i = 0; i < oids.size(); i++) {
+            Acl acl = acls.get(oids.get(i));
+            if (acl == null) {
+                notFound.set(i);
+                continue;
+            }
+            for (int j = 0; j < singlePermissions.size(); j++) {
+                try {
+                    if (acl.isGranted(singlePermissions.get(j), sids, false)) {
+                        granted.set(i * singlePermissions.size() + j);
+                    }
+                } catch (NotFoundException e) {
+                    // No matching ACE, so the permission is not granted
+                }
+            }
+        }
+        return new GrantedPermissions(permissions.size(), granted, notFound);
+    }
+
+    @Override
+    public Map<Sid, Integer> findEffectiveMasks(ObjectIdentity oid) {
+        Assert.notNull(oid, "Object Identity required");
+        return aclOperations.findEffectiveMasks(oid);
+    }
+
+    @Override
+    public KeysetSlice<ObjectIdentity> findPermittedObjectIdentities(String type, List<Sid> sids, Permission permission, @Nullable Long cursor, int size) {
+        Assert.notEmpty(sids, "SIDs required");
+        return aclOperations.findPermittedObjectIdentities(type, sids, permission, cursor, size);
+    }
+
+    @Override
+    public Map<ObjectIdentity, MutableAcl> createAcls(Collection<AclSpec> specs) {
+        Assert.notNull(specs, "specs cannot be null");
+
+        // ACLs without an owner are owned by the current principal
+        List<AclSpec> ownedSpecs = new ArrayList<>(specs.size());
+        Sid currentOwner = null;
+        for (AclSpec spec : specs) {
+            if (spec.getOwner() == null) {
+                if (currentOwner == null) {
+                    currentOwner = new PrincipalSid(SecurityContextHolder.getContext().getAuthentication());
+                }
+                spec = spec.toBuilder().owner(currentOwner).build();
+            }
+            ownedSpecs.add(spec);
+        }
+
+        Map<ObjectIdentity, MutableAcl> result = new LinkedHashMap<>();
+        for (int from = 0; from < ownedSpecs.size(); from += createChunkSize) {
+            List<AclSpec> chunk = ownedSpecs.subList(from, Math.min(from + createChunkSize, ownedSpecs.size()));
+            List<AclSource> sources = transactionOperations.execute(status -> aclOperations.createAcls(chunk));
+            Map<ObjectIdentity, Acl> acls = lookupStrategy.loadAcls(Objects.requireNonNull(sources));
+            for (AclSpec spec : chunk) {
+                result.put(spec.getObjectIdentity(), copyOf(acls.get(spec.getObjectIdentity())));
+            }
+        }
+        return result;
+    }
+
+    @Override
+    public MutableAcl createChildAcl(ObjectIdentity parentOid, ObjectIdentity childOid, @Nullable Sid owner, List<AceSpec> aces)
+        throws AlreadyExistsException, NotFoundException {
+        Assert.notNull(parentOid, "Parent Object Identity required");
+        Assert.notNull(childOid, "Object Identity required");
+        Assert.notNull(aces, "aces cannot be null");
+
+        // The parent is usually cached, so this only resolves its id
+        MutableAcl parent = (MutableAcl) lookupStrategy.readAclsById(List.of(parentOid), Collections.emptyList()).get(parentOid);
+        if (parent == null) {
+            throw new NotFoundException("Unable to find parent ACL information for object identity '" + parentOid + "'");
+        }
+
+        AclSpec spec = AclSpec.builder()
+            .objectIdentity(childOid)
+            .parent(parentOid)
+            .owner(owner != null ? owner : new PrincipalSid(SecurityContextHolder.getContext().getAuthentication()))
+            .aces(aces)
+            .build();
+        AclSource source = transactionOperations.execute(status -> aclOperations.createChildAcl((Long) parent.getId(), spec));
+
+        // Links the parent from the cache while converting
+        Acl acl = lookupStrategy.loadAcls(List.of(Objects.requireNonNull(source))).get(childOid);
+        return copyOf(acl);
+    }
+
+    @Override
+    public void grantPermission(Collection<ObjectIdentity> oids, Sid sid, Permission permission) {
+        List<Long> changedIds = transactionOperations.execute(status -> aclOperations.grantPermission(oids, sid, permission));
+
+        // Clear the changed ACLs only, including their children
+        Objects.requireNonNull(changedIds).forEach(aclCache::evictFromCacheIncludingChildren);
+    }
+
+    @Override
+    public void revokePermission(Collection<ObjectIdentity> oids, Sid sid, Permission permission) {
+        List<Long> changedIds = transactionOperations.execute(status -> aclOperations.revokePermission(oids, sid, permission));
+
+        // Clear the changed ACLs only, including their children
+        Objects.requireNonNull(changedIds).forEach(aclCache::evictFromCacheIncludingChildren);
     }
 
     @Override
     public void deleteAcl(ObjectIdentity oid, boolean deleteChildren) throws ChildrenExistException {
-        aclOperations.deleteAcl(oid, deleteChildren);
+        List<Long> parentIds = aclOperations.deleteAcl(oid, deleteChildren);
 
-        // Clear the cache
-        aclCache.evictFromCache(oid);
+        // Clear the cache, including children (by generation). Every deleted parent is invalidated,
+        // so a cached descendant sees it even when its own parent was never loaded (LAZY mode)
+        parentIds.forEach(aclCache::evictFromCacheIncludingChildren);
     }
 
     @Override
     public MutableAcl updateAcl(MutableAcl acl) throws NotFoundException {
-        aclOperations.updateAcl(acl);
+        List<Long> aceIds = aclOperations.updateAcl(acl);
+
+        // Clear the cache, including children (children compare against this generation
+        // when they are read, so no descendant scan is needed)
+        aclCache.evictFromCacheIncludingChildren(acl.getId());
 
-        // Clear the cache, including children
-        clearCacheIncludingChildren(acl.getObjectIdentity());
+        // The written state is already in memory, so put it in the cache without reloading
+        if (acl instanceof CompactAcl compactAcl) {
+            CompactAcl updated = patchCache(compactAcl.withAceIds(aceIds));
+            return updated.copy();
+        }
 
         // Retrieve the ACL via superclass (ensures cache registration, proper retrieval
         // etc)
-        return (MutableAcl) readAclById(acl.getObjectIdentity());
+        return copyOf(readAclById(acl.getObjectIdentity()));
+    }
+
+    @Override
+    public MutableAcl getMutableAcl(ObjectIdentity oid) {
+        Assert.notNull(oid, "Object Identity required");
+
+        // Read through the lookup strategy, which reports a missing ACL by omission instead of an exception
+        Acl acl = lookupStrategy.readAclsById(List.of(oid), Collections.emptyList()).get(oid);
+        if (acl == null) {
+            Sid owner = new PrincipalSid(SecurityContextHolder.getContext().getAuthentication());
+            AclSource source = transactionOperations.execute(status -> aclOperations.getOrCreateAcl(oid, owner));
+            acl = lookupStrategy.loadAcls(List.of(Objects.requireNonNull(source))).get(oid);
+        }
+        return copyOf(acl);
+    }
+
+    public final void setCreateChunkSize(int createChunkSize) {
+        Assert.isTrue(createChunkSize >= 1, "createChunkSize must be >= 1");
+        this.createChunkSize = createChunkSize;
     }
 
     @Override
@@ -72,17 +220,42 @@ public class CustomMutableAclService extends CustomAclService implements Enhance
         return lookupStrategy;
     }
 
-    private void clearCacheIncludingChildren(ObjectIdentity oid) {
-        Assert.notNull(oid, "ObjectIdentity required");
-
-        List<ObjectIdentity> children = findChildren(oid);
-        if (children != null) {
-            for (ObjectIdentity child : children) {
-                clearCacheIncludingChildren(child);
-            }
+    /**
+     * 저장 된 ACL 을 캐시에 넣는다.
+     * 부모 ACL 은 호출자가 가진 객체 대신 현재 캐시 된 부모로 연결 하며,
+     * 부모가 캐시 되어 있지 않으면 다음 조회 시 불러오도록 캐시에 넣지 않는다.
+     * @param acl 저장 된 ACL 객체
+     * @return 캐시 된 부모가 연결 된 ACL 객체
+     */
+    private CompactAcl patchCache(CompactAcl acl) {
+        // Take the generation before reading the parent, so that a racing invalidation
+        // of the parent also invalidates this entry
+        long generation = aclCache.getGeneration();
+        Acl parentAcl = acl.getParentAcl();
+        if (parentAcl == null) {
+            aclCache.putInCache(acl, generation);
+            return acl;
         }
+        MutableAcl cachedParent = aclCache.getFromCache(parentAcl.getObjectIdentity());
+        if (cachedParent == null) {
+            return acl;
+        }
+        CompactAcl linked = acl.withParent(cachedParent);
+        aclCache.putInCache(linked, generation);
+        return linked;
+    }
 
-        aclCache.evictFromCache(oid);
+    /**
+     * 캐시 된 ACL 이 변경 되지 않도록 변경 가능한 복사본 생성
+     * @param acl ACL 객체
+     * @return 변경 가능한 ACL 객체
+     */
+    private MutableAcl copyOf(Acl acl) {
+        if (acl instanceof CompactAcl compactAcl) {
+            return compactAcl.copy();
+        } else {
+            return (MutableAcl) acl;
+        }
     }
 
 }
@@ -0,0 +1,52 @@
+package com.jacknie.example.custom;
+
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
+import org.springframework.security.acls.model.AclCache;
+import org.springframework.security.acls.model.MutableAcl;
+import org.springframework.security.acls.model.ObjectIdentity;
+
+import java.io.Serializable;
+
+public interface EnhancedAclCache extends AclCache {
+
+    /**
+     * 현재 캐시 세대 조회.
+     * ACL 을 불러오기 전에 조회 한 세대로 저장 하면 불러오는 도중 무효화 된 ACL 이 캐시에 남지 않는다.
+     * @return 현재 캐시 세대
+     */
+    long getGeneration();
+
+    /**
+     * ACL 을 불러오기 시작한 시점의 세대로 캐시 저장
+     * @param acl ACL 객체
+     * @param generation ACL 을 불러오기 전에 조회 한 캐시 세대
+     */
+    void putInCache(MutableAcl acl, long generation);
+
+    /**
+     * ACL 과 캐시 된 모든 하위 ACL 무효화.
+     * 하위 ACL 은 조회 시 상위 ACL 의 무효화 세대와 비교 되므로 하위 ACL 을 탐색 하지 않는다.
+     * @param pk ACL 아이디
+     */
+    void evictFromCacheIncludingChildren(Serializable pk);
+
+    /**
+     * 유효한 ACL 이 캐시 되어 있는지 확인 (캐시 통계를 기록 하지 않음)
+     * @param oid 객체 식별 정보
+     * @return 캐시 여부
+     */
+    boolean isCached(ObjectIdentity oid);
+
+    /**
+     * 캐시 되지 않은 ACL 을 불러오는데 걸린 시간 기록
+     * @param loadTime 소요 시간 (nanoseconds)
+     */
+    void recordLoad(long loadTime);
+
+    /**
+     * 캐시 통계 조회 (hit, miss, eviction, load time)
+     * @return 캐시 통계
+     */
+    CacheStats getStatistics();
+
+}
@@ -0,0 +1,19 @@
+package com.jacknie.example.custom;
+
+import org.springframework.security.acls.jdbc.LookupStrategy;
+import org.springframework.security.acls.model.Acl;
+import org.springframework.security.acls.model.ObjectIdentity;
+
+import java.util.List;
+import java.util.Map;
+
+public interface EnhancedLookupStrategy extends LookupStrategy {
+
+    /**
+     * 이미 가지고 있는 ACL 소스 정보를 ACL 객체로 변환 하고 캐시에 저장 (없는 부모 ACL 만 조회)
+     * @param sources ACL 소스 정보 목록
+     * @return 부모를 포함한 ACL 객체 맵
+     */
+    Map<ObjectIdentity, Acl> loadAcls(List<AclSource> sources);
+
+}
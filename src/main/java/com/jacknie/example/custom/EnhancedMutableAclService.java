@@ -1,12 +1,13 @@
 package com.jacknie.example.custom;
 
+import org.springframework.lang.Nullable;
 import org.springframework.security.acls.domain.ObjectIdentityImpl;
-import org.springframework.security.acls.model.MutableAcl;
-import org.springframework.security.acls.model.MutableAclService;
-import org.springframework.security.acls.model.NotFoundException;
-import org.springframework.security.acls.model.ObjectIdentity;
+import org.springframework.security.acls.model.*;
 
 import java.io.Serializable;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
 
 public interface EnhancedMutableAclService extends MutableAclService {
 
@@ -43,16 +44,81 @@ public interface EnhancedMutableAclService extends MutableAclService {
     }
 
     /**
-     * ACL 객체 조회
+     * 여러 객체의 여러 권한 일괄 검사.
+     * ACL 을 한번에 조회 하고 (캐시 된 ACL 은 조회 하지 않음) 객체 별, 권한 별로 검사 한다.
+     * 일치 하는 ACE 가 없으면 권한이 없는 것으로 처리 하고, ACL 이 없으면 권한이 없는 것으로 처리 하면서 ACL 이 없는 객체로 표시 한다.
+     * @param oids 객체 식별 정보 목록
+     * @param permissions 권한 목록 (권한 마다 따로 검사)
+     * @param sids 보안 식별 정보 목록
+     * @return 권한 부여 결과 (oids 의 순서, permissions 의 순서로 조회)
+     */
+    GrantedPermissions isGranted(List<ObjectIdentity> oids, List<Permission> permissions, List<Sid> sids);
+
+    /**
+     * 클래스의 객체 식별 정보 중 보안 식별 정보 목록에 권한이 부여 된 목록 조회 (상속 되는 조상 ACL 포함, 관리 아이디 순서).
+     * ACL 객체를 만들지 않고 보안 식별 정보의 권한 부여 ACE 와 그 ACE 를 상속 하는 자손만 검사 하므로,
+     * 조회 비용은 클래스의 전체 객체 수가 아니라 권한 부여 ACE 가 닿는 객체 수에 비례 한다.
+     * @param type 클래스 이름
+     * @param sids 보안 식별 정보 목록
+     * @param permission 권한
+     * @param cursor 이전 조회 결과의 다음 목록 조회 기준 (처음 조회 하면 null)
+     * @param size 조회 할 최대 개수
+     * @return 권한이 부여 된 객체 식별 정보 목록
+     */
+    KeysetSlice<ObjectIdentity> findPermittedObjectIdentities(String type, List<Sid> sids, Permission permission, @Nullable Long cursor, int size);
+
+    /**
+     * 객체 식별 정보에 권한이 있는 보안 식별 정보 별 유효 권한 마스크 조회 (상속 되는 조상 ACL 포함, 재귀 쿼리 1회 실행).
+     * @param oid 객체 식별 정보
+     * @return 보안 식별 정보 별 유효 권한 마스크 맵 (부여 된 비트가 없는 보안 식별 정보는 제외)
+     */
+    Map<Sid, Integer> findEffectiveMasks(ObjectIdentity oid);
+
+    /**
+     * ACL 일괄 생성.
+     * 명세를 청크 단위로 나누어 청크 마다 하나의 트랜잭션으로 저장 하고 (호출자 트랜잭션이 있으면 참여),
+     * 생성 된 ACL 을 다시 조회 하지 않고 캐시에 저장 한다.
+     * @param specs ACL 명세 목록 (부모 명세는 자식 보다 앞에 있어야 함)
+     * @return 객체 식별 정보 별 ACL 객체 맵
+     */
+    Map<ObjectIdentity, MutableAcl> createAcls(Collection<AclSpec> specs);
+
+    /**
+     * 자식 ACL 생성.
+     * 부모 ACL 은 캐시 된 객체를 사용 하고, 자식 ACL 은 ACE 와 함께 한번에 저장 한 뒤 다시 조회 하지 않고 캐시에 저장 한다.
+     * @param parentOid 부모 객체 식별 정보
+     * @param childOid 자식 객체 식별 정보
+     * @param owner 소유자 (null 이면 현재 사용자)
+     * @param aces ACE 명세 목록
+     * @return 자식 ACL 객체
+     * @throws AlreadyExistsException 자식 객체 식별 정보가 이미 저장 되어 있는 경우
+     * @throws NotFoundException 부모 객체 식별 정보가 저장 되어 있지 않은 경우
+     */
+    MutableAcl createChildAcl(ObjectIdentity parentOid, ObjectIdentity childOid, @Nullable Sid owner, List<AceSpec> aces)
+        throws AlreadyExistsException, NotFoundException;
+
+    /**
+     * 여러 ACL 에 한 SID 의 권한 일괄 부여 (하나의 트랜잭션으로 처리, 변경 된 ACL 과 그 하위 ACL 만 캐시 무효화).
+     * SID 의 같은 권한 거부 ACE 가 있는 ACL 은 변경 하지 않는다.
+     * @param oids 객체 식별 정보 목록
+     * @param sid 보안 식별 정보
+     * @param permission 권한
+     */
+    void grantPermission(Collection<ObjectIdentity> oids, Sid sid, Permission permission);
+
+    /**
+     * 여러 ACL 에서 한 SID 의 권한 일괄 회수 (하나의 트랜잭션으로 처리, 변경 된 ACL 과 그 하위 ACL 만 캐시 무효화)
+     * @param oids 객체 식별 정보 목록
+     * @param sid 보안 식별 정보
+     * @param permission 권한
+     */
+    void revokePermission(Collection<ObjectIdentity> oids, Sid sid, Permission permission);
+
+    /**
+     * ACL 객체 조회 (없으면 현재 사용자를 소유자로 생성, 동시에 생성 되는 경우에도 예외 없이 같은 ACL 을 반환)
      * @param oid 객체 식별 정보
      * @return ACL 객체
      */
-    default MutableAcl getMutableAcl(ObjectIdentity oid) {
-        try {
-            return (MutableAcl) readAclById(oid);
-        } catch (NotFoundException e) {
-            return createAcl(oid);
-        }
-    }
+    MutableAcl getMutableAcl(ObjectIdentity oid);
 
 }
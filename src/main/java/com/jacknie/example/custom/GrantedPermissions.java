@@ -0,0 +1,41 @@
+package com.jacknie.example.custom;
+
+import lombok.Data;
+
+import java.util.BitSet;
+
+@Data
+public class GrantedPermissions {
+
+    /**
+     * 객체 별 검사 한 권한 개수
+     */
+    private final int permissionCount;
+
+    /**
+     * 권한 부여 결과 (i 번째 객체가 j 번째 권한을 가지면 i * permissionCount + j 번째 비트 설정)
+     */
+    private final BitSet granted;
+
+    /**
+     * ACL 이 없는 객체 (i 번째 객체의 ACL 이 없으면 i 번째 비트 설정)
+     */
+    private final BitSet notFound;
+
+    /**
+     * @param oidIndex 객체 순서
+     * @param permissionIndex 권한 순서
+     * @return 권한 부여 여부 (ACL 이 없으면 false)
+     */
+    public boolean isGranted(int oidIndex, int permissionIndex) {
+        return granted.get(oidIndex * permissionCount + permissionIndex);
+    }
+
+    /**
+     * @param oidIndex 객체 순서
+     * @return ACL 이 없어서 권한이 거부 된 것인지 여부
+     */
+    public boolean isNotFound(int oidIndex) {
+        return notFound.get(oidIndex);
+    }
+}
@@ -0,0 +1,38 @@
+package com.jacknie.example.custom;
+
+import lombok.Data;
+import org.springframework.lang.Nullable;
+
+import java.util.List;
+import java.util.function.Function;
+
+@Data
+public class KeysetSlice<T> {
+
+    /**
+     * 조회 된 목록
+     */
+    private final List<T> content;
+
+    /**
+     * 다음 목록 조회 기준 (마지막으로 검사 한 객체 식별 정보 관리 아이디, 다음 목록이 없으면 null)
+     */
+    @Nullable
+    private final Long nextCursor;
+
+    /**
+     * @return 다음 목록 존재 여부
+     */
+    public boolean hasNext() {
+        return nextCursor != null;
+    }
+
+    /**
+     * 다음 목록 조회 기준을 유지 하고 목록만 변환
+     * @param converter 목록 변환 함수
+     * @return 변환 된 목록
+     */
+    public <R> KeysetSlice<R> withContent(Function<List<T>, List<R>> converter) {
+        return new KeysetSlice<>(converter.apply(content), nextCursor);
+    }
+}
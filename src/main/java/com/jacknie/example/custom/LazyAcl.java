@@ -0,0 +1,19 @@
+package com.jacknie.example.custom;
+
+import org.springframework.security.acls.model.Acl;
+
+import java.io.Serializable;
+
+/**
+ * 필요 할 때 조회 되는 ACL.
+ * 조회 하지 않고 아이디를 알 수 있으므로 캐시 무효화 검사에서 조회 없이 상위 ACL 로 사용 된다.
+ */
+interface LazyAcl extends Acl {
+
+    /**
+     * ACL 아이디 조회 (ACL 을 조회 하지 않음)
+     * @return ACL 아이디
+     */
+    Serializable getId();
+
+}
@@ -1,6 +1,9 @@
 package com.jacknie.example.custom;
 
+import com.jacknie.example.repository.acl.AclMatchedAcePart;
 import org.springframework.security.acls.model.ObjectIdentity;
+import org.springframework.security.acls.model.Permission;
+import org.springframework.security.acls.model.Sid;
 
 import java.util.List;
 import java.util.Set;
@@ -20,4 +23,20 @@ public interface LookupOperations {
      * @return ACL 소스 정보 목록
      */
     List<AclSource> findAclSourcesByObjectIdentityIdIn(Set<Long> primaryKeys);
+
+    /**
+     * ACL 소스 정보 목록 조회 (모든 조상 ACL 소스 정보 포함)
+     * @param oids 객체 식별 정보 목록
+     * @return ACL 소스 정보 목록
+     */
+    List<AclSource> findAclSourcesWithAncestorsByObjectIdentityIn(Set<ObjectIdentity> oids);
+
+    /**
+     * 객체 식별 정보와 상속 되는 조상 ACL 들의 ACE 중 보안 식별 정보와 권한이 일치 하는 ACE 목록 조회
+     * @param oid 객체 식별 정보
+     * @param sids 보안 식별 정보 목록
+     * @param permission 권한
+     * @return 일치 하는 ACE 목록 (ACL 깊이, ACE 순서로 정렬)
+     */
+    List<AclMatchedAcePart> findMatchedAcePartsWithAncestors(ObjectIdentity oid, List<Sid> sids, Permission permission);
 }
@@ -1,33 +1,66 @@
 package com.jacknie.example.custom;
 
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
 import com.jacknie.example.repository.acl.*;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.core.convert.ConversionService;
+import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.data.util.Pair;
 import org.springframework.lang.Nullable;
 import org.springframework.security.acls.domain.AccessControlEntryImpl;
 import org.springframework.security.acls.domain.ObjectIdentityImpl;
 import org.springframework.security.acls.domain.PrincipalSid;
 import org.springframework.security.acls.model.*;
+import org.springframework.transaction.support.TransactionOperations;
 import org.springframework.util.Assert;
 
 import java.io.Serializable;
 import java.util.*;
+import java.util.function.Function;
 import java.util.stream.Collectors;
-import java.util.stream.IntStream;
 import java.util.stream.Stream;
 
 @Slf4j
 @RequiredArgsConstructor
 public class OperationsImpl implements AclOperations, LookupOperations {
 
+    /**
+     * 일괄 처리 쿼리 1회의 in 절에 전달 할 최대 아이디 개수
+     */
+    private static final int CHUNK_SIZE = 1000;
+
+    /**
+     * SID, 클래스 아이디 캐시 최대 크기
+     */
+    private static final long INTERNING_CACHE_SIZE = 10_000;
+
     private final AclClassRepository classRepository;
     private final AclSidRepository sidRepository;
     private final AclObjectIdentityRepository oidRepository;
     private final AclEntryRepository entryRepository;
     private final ConversionService objectIdentifierConversionService;
 
+    /**
+     * SID, 클래스 저장 용 새 트랜잭션 (저장 된 아이디는 호출 트랜잭션이 rollback 되어도 유효 해야 캐시 할 수 있다)
+     */
+    private final TransactionOperations newTransactionOperations;
+
+    private final Cache<Pair<String, SidType>, Long> sidIdCache = Caffeine.newBuilder().maximumSize(INTERNING_CACHE_SIZE).build();
+    private final Cache<String, Long> classIdCache = Caffeine.newBuilder().maximumSize(INTERNING_CACHE_SIZE).build();
+
+    /**
+     * 객체 식별 정보 아이디 타입 별 변환 함수 캐시 (클래스 조회, 변환 가능 여부 판단은 타입 당 한번만 한다)
+     */
+    private final Cache<String, Function<String, Serializable>> identifierConverterCache = Caffeine.newBuilder().maximumSize(INTERNING_CACHE_SIZE).build();
+
+    /**
+     * 조상 closure 테이블 (null 이면 사용 하지 않고 재귀 쿼리로 계층을 조회)
+     */
+    @Nullable
+    private AclObjectIdentityClosureRepository closureRepository;
+
     @Override
     public boolean existsObjectIdentity(ObjectIdentity oid) {
         Assert.hasText(oid.getType(), "ObjectIdentity type cannot be blank");
@@ -43,33 +76,269 @@ public class OperationsImpl implements AclOperations, LookupOperations {
     }
 
     @Override
-    public void deleteAcl(ObjectIdentity oid, boolean deleteChildren) {
+    public AclSource getOrCreateAcl(ObjectIdentity oid, Sid owner) {
+        Assert.notNull(oid, "Object Identity required");
+        Assert.notNull(owner, "Owner is required in this implementation");
+        AclObjectIdentity entity = AclObjectIdentity.builder()
+            .objectIdIdentity(oid.getIdentifier().toString())
+            .objectIdNumber(ObjectIdNumberUtils.toObjectIdNumber(oid.getIdentifier()))
+            .entriesInheriting(true)
+            .objectIdClass(classRepository.getById(createOrRetrieveClassPrimaryKey(oid.getType(), oid.getIdentifier().getClass())))
+            .ownerSid(sidRepository.getById(createOrRetrieveSidPrimaryKey(owner)))
+            .build();
+        Optional<Long> createdId = oidRepository.insertIfAbsent(entity);
+        if (createdId.isEmpty()) {
+            // Created by someone else in the meantime, so read what has been stored
+            return findAclSourcesByObjectIdentityIn(Set.of(oid)).stream()
+                .findFirst()
+                .orElseThrow(() -> new NotFoundException("Unable to find ACL information for object identity '" + oid + "'"));
+        }
+
+        insertClosures(Collections.singletonMap(createdId.get(), null));
+
+        // A new ACL has no parent and no ACEs, so it is built without reading it back
+        SidHelper ownerHelper = new SidHelper(owner);
+        return AclSource.builder()
+            .aclId(createdId.get())
+            .entriesInheriting(true)
+            .identifier(oid.getIdentifier())
+            .type(oid.getType())
+            .aclSidType(ownerHelper.getType())
+            .aclSid(ownerHelper.getSid())
+            .aces(Collections.emptyList())
+            .build();
+    }
+
+    @Override
+    public List<AclSource> createAcls(List<AclSpec> specs) throws AlreadyExistsException, NotFoundException {
+        Assert.notEmpty(specs, "specs cannot be empty");
+        Map<Pair<String, String>, AclSpec> specMap = new LinkedHashMap<>();
+        for (AclSpec spec : specs) {
+            Assert.notNull(spec.getObjectIdentity(), "Object Identity required");
+            Assert.notNull(spec.getOwner(), "Owner is required in this implementation");
+            Assert.isNull(specMap.put(toKey(spec.getObjectIdentity()), spec), () -> "Duplicated object identity: " + spec.getObjectIdentity());
+        }
+
+        // Check none of the object identities has already been persisted
+        Set<ObjectIdentity> oids = specs.stream().map(AclSpec::getObjectIdentity).collect(Collectors.toSet());
+        oidRepository.findIdMapByObjectIdentityIn(oids).keySet().stream().findFirst().ifPresent(key -> {
+            throw new AlreadyExistsException("Object identity '" + specMap.get(key).getObjectIdentity() + "' already exists");
+        });
+
+        // Parents outside of this batch must already exist
+        Set<ObjectIdentity> outerParents = specs.stream()
+            .map(AclSpec::getParent)
+            .filter(Objects::nonNull)
+            .filter(parent -> !specMap.containsKey(toKey(parent)))
+            .collect(Collectors.toSet());
+        Map<Pair<String, String>, Long> outerParentIds = oidRepository.findIdMapByObjectIdentityIn(outerParents);
+        for (ObjectIdentity parent : outerParents) {
+            if (!outerParentIds.containsKey(toKey(parent))) {
+                throw new NotFoundException("Unable to find parent ACL information for object identity '" + parent + "'");
+            }
+        }
+
+        // Resolve every owner and ACE SID, and every class, at once
+        List<Sid> sids = specs.stream()
+            .flatMap(spec -> Stream.concat(Stream.of(spec.getOwner()), spec.getAces().stream().map(AceSpec::getSid)))
+            .toList();
+        Map<Pair<String, SidType>, Long> sidIds = saveSids(sids);
+        Map<String, Long> classIds = new HashMap<>();
+        for (ObjectIdentity oid : oids) {
+            classIds.computeIfAbsent(oid.getType(), type -> createOrRetrieveClassPrimaryKey(type, oid.getIdentifier().getClass()));
+        }
+
+        // Insert the acl_object_identity rows in one batch, then read their ids back at once
+        List<AclObjectIdentity> oidEntities = specs.stream()
+            .map(spec -> AclObjectIdentity.builder()
+                .objectIdIdentity(spec.getObjectIdentity().getIdentifier().toString())
+                .objectIdNumber(ObjectIdNumberUtils.toObjectIdNumber(spec.getObjectIdentity().getIdentifier()))
+                .entriesInheriting(spec.isEntriesInheriting())
+                .parentObject(Optional.ofNullable(spec.getParent())
+                    .map(parent -> outerParentIds.get(toKey(parent)))
+                    .map(oidRepository::getById)
+                    .orElse(null))
+                .objectIdClass(classRepository.getById(classIds.get(spec.getObjectIdentity().getType())))
+                .ownerSid(sidRepository.getById(sidIds.get(toSidPair(spec.getOwner()))))
+                .build())
+            .toList();
+        oidRepository.insertAll(oidEntities);
+        Map<Pair<String, String>, Long> oidIds = oidRepository.findIdMapByObjectIdentityIn(oids);
+
+        // Link the parents created in this batch
+        Map<Long, Long> innerParentIds = new HashMap<>();
+        for (AclSpec spec : specs) {
+            if (spec.getParent() != null && specMap.containsKey(toKey(spec.getParent()))) {
+                innerParentIds.put(oidIds.get(toKey(spec.getObjectIdentity())), oidIds.get(toKey(spec.getParent())));
+            }
+        }
+        oidRepository.updateParentObjectIdAll(innerParentIds);
+        if (closureRepository != null) {
+            Map<Long, Long> parentIdsById = new HashMap<>(innerParentIds);
+            for (AclSpec spec : specs) {
+                ObjectIdentity parent = spec.getParent();
+                Long parentId = parent == null ? null : outerParentIds.get(toKey(parent));
+                parentIdsById.putIfAbsent(oidIds.get(toKey(spec.getObjectIdentity())), parentId);
+            }
+            insertClosures(sortParentFirst(parentIdsById));
+        }
+
+        // Insert the acl_entry rows (batched by the pooled sequence)
+        List<AclEntry> entryEntities = new ArrayList<>();
+        for (AclSpec spec : specs) {
+            AclObjectIdentity aclOid = oidRepository.getById(oidIds.get(toKey(spec.getObjectIdentity())));
+            entryEntities.addAll(newAclEntries(aclOid, spec.getAces(), sidIds));
+        }
+        entryRepository.saveAll(entryEntities);
+
+        Iterator<AclEntry> entryIterator = entryEntities.iterator();
+        return specs.stream().map(spec -> {
+            ObjectIdentity parent = spec.getParent();
+            Long parentId = parent == null ? null : Optional.ofNullable(outerParentIds.get(toKey(parent))).orElseGet(() -> oidIds.get(toKey(parent)));
+            return toAclSource(spec, oidIds.get(toKey(spec.getObjectIdentity())), parentId, entryIterator);
+        }).toList();
+    }
+
+    @Override
+    public AclSource createChildAcl(long parentId, AclSpec spec) throws AlreadyExistsException {
+        Assert.notNull(spec.getObjectIdentity(), "Object Identity required");
+        Assert.notNull(spec.getOwner(), "Owner is required in this implementation");
+        ObjectIdentity oid = spec.getObjectIdentity();
+        List<Sid> sids = Stream.concat(Stream.of(spec.getOwner()), spec.getAces().stream().map(AceSpec::getSid)).toList();
+        Map<Pair<String, SidType>, Long> sidIds = saveSids(sids);
+
+        // The upsert reports an existing row by returning no id, so no existence check is needed
+        AclObjectIdentity entity = AclObjectIdentity.builder()
+            .objectIdIdentity(oid.getIdentifier().toString())
+            .objectIdNumber(ObjectIdNumberUtils.toObjectIdNumber(oid.getIdentifier()))
+            .entriesInheriting(spec.isEntriesInheriting())
+            .parentObject(oidRepository.getById(parentId))
+            .objectIdClass(classRepository.getById(createOrRetrieveClassPrimaryKey(oid.getType(), oid.getIdentifier().getClass())))
+            .ownerSid(sidRepository.getById(sidIds.get(toSidPair(spec.getOwner()))))
+            .build();
+        Long id = oidRepository.insertIfAbsent(entity)
+            .orElseThrow(() -> new AlreadyExistsException("Object identity '" + oid + "' already exists"));
+        insertClosures(Collections.singletonMap(id, parentId));
+
+        // Insert the acl_entry rows (batched by the pooled sequence)
+        List<AclEntry> entryEntities = newAclEntries(oidRepository.getById(id), spec.getAces(), sidIds);
+        entryRepository.saveAll(entryEntities);
+        return toAclSource(spec, id, parentId, entryEntities.iterator());
+    }
+
+    @Override
+    public List<Long> deleteAcl(ObjectIdentity oid, boolean deleteChildren) {
         Assert.notNull(oid, "Object Identity required");
         Assert.notNull(oid.getIdentifier(), "Object Identity doesn't provide an identifier");
 
+        Long id = oidRepository.findIdByObjectIdentity(oid)
+            .orElseThrow(() -> new IllegalArgumentException("cannot found AclObjectIdentity entity by ObjectIdentity: " + oid));
+        List<Long> ids = new ArrayList<>();
+        ids.add(id);
         if (deleteChildren) {
-            List<ObjectIdentity> children = findChildren(oid);
-            if (children != null) {
-                for (ObjectIdentity child : children) {
-                    deleteAcl(child, true);
-                }
+            List<Long> descendantIds = closureRepository != null
+                ? closureRepository.findDescendantIdsByAncestor(id)
+                : oidRepository.findDescendantIdsById(id);
+            descendantIds.stream().filter(descendantId -> !descendantId.equals(id)).forEach(ids::add);
+        }
+        List<List<Long>> chunks = partition(ids);
+        if (closureRepository != null) {
+            chunks.forEach(closureRepository::deleteAllByIdIn);
+        }
+        // Delete the ACEs in the acl_entry table
+        chunks.forEach(entryRepository::deleteAllByObjectIdentityIdIn);
+        // The deleted ACLs that had deleted children, so that cached descendants are invalidated through them
+        Set<Long> parentIds = new LinkedHashSet<>();
+        parentIds.add(id);
+        if (ids.size() > 1) {
+            partition(ids.subList(1, ids.size())).forEach(chunk -> parentIds.addAll(oidRepository.findParentIdsByIdIn(chunk)));
+            // Unlink the subtree first, so that the acl_object_identity rows can be deleted in any order
+            chunks.forEach(oidRepository::updateParentToNullByIdIn);
+        }
+        // Delete the acl_object_identity rows
+        chunks.forEach(oidRepository::deleteAllByIdIn);
+        return List.copyOf(parentIds);
+    }
+
+    @Override
+    public List<Long> grantPermission(Collection<ObjectIdentity> oids, Sid sid, Permission permission) throws NotFoundException {
+        Assert.notNull(sid, "sid cannot be null");
+        Assert.isTrue(permission != null && permission.getMask() != 0, "permission cannot be empty");
+        List<Long> oidIds = getObjectIdentityIds(oids);
+        long sidId = createOrRetrieveSidPrimaryKey(sid);
+        int bits = permission.getMask();
+        List<Long> changedIds = new ArrayList<>();
+        for (List<Long> chunk : partition(oidIds)) {
+            Map<Long, Integer> grantedMasks = entryRepository.findGrantingMaskMapBySidId(chunk, sidId);
+
+            // The SID's own deny ACE would still decide, so those ACLs are left unchanged
+            Set<Long> deniedIds = entryRepository.findDenyingObjectIdentityIdsBySidId(chunk, sidId, bits);
+            if (!deniedIds.isEmpty()) {
+                chunk = chunk.stream().filter(id -> !deniedIds.contains(id)).toList();
             }
+
+            // Add the missing bits to the SID's existing granting ACEs
+            List<Long> updatedIds = chunk.stream()
+                .filter(grantedMasks::containsKey)
+                .filter(id -> (grantedMasks.get(id) & bits) != bits)
+                .toList();
+            entryRepository.updateGrantingMaskOrBySidId(updatedIds, sidId, bits);
+
+            // Append a granting ACE where the SID has none
+            List<Long> insertedIds = chunk.stream().filter(id -> !grantedMasks.containsKey(id)).toList();
+            Map<Long, Integer> maxAceOrders = entryRepository.findMaxAceOrderMapByObjectIdentityIdIn(insertedIds);
+            AclSid aclSid = sidRepository.getById(sidId);
+            entryRepository.saveAll(insertedIds.stream()
+                .map(id -> AclEntry.builder()
+                    .aceOrder(maxAceOrders.getOrDefault(id, -1) + 1)
+                    .mask(bits)
+                    .granting(true)
+                    .auditSuccess(false)
+                    .auditFailure(false)
+                    .objectIdentity(oidRepository.getById(id))
+                    .sid(aclSid)
+                    .build())
+                .toList());
+
+            changedIds.addAll(updatedIds);
+            changedIds.addAll(insertedIds);
         }
+        return changedIds;
+    }
 
-        // Delete this ACL's ACEs in the acl_entry table
-        deleteEntries(oid);
-        // Delete this ACL's acl_object_identity row
-        deleteObjectIdentity(oid);
+    @Override
+    public List<Long> revokePermission(Collection<ObjectIdentity> oids, Sid sid, Permission permission) throws NotFoundException {
+        Assert.notNull(sid, "sid cannot be null");
+        Assert.isTrue(permission != null && permission.getMask() != 0, "permission cannot be empty");
+        List<Long> oidIds = getObjectIdentityIds(oids);
+        long sidId = createOrRetrieveSidPrimaryKey(sid);
+        int bits = permission.getMask();
+        List<Long> changedIds = new ArrayList<>();
+        for (List<Long> chunk : partition(oidIds)) {
+            Map<Long, Integer> grantedMasks = entryRepository.findGrantingMaskMapBySidId(chunk, sidId);
+            List<Long> updatedIds = chunk.stream()
+                .filter(grantedMasks::containsKey)
+                .filter(id -> (grantedMasks.get(id) & bits) != 0)
+                .toList();
+
+            // Clear the bits, then drop the SID's granting ACEs that are left without any bit
+            entryRepository.updateGrantingMaskAndNotBySidId(updatedIds, sidId, bits);
+            entryRepository.deleteEmptyGrantingBySidId(updatedIds, sidId);
+
+            changedIds.addAll(updatedIds);
+        }
+        return changedIds;
     }
 
     @Override
-    public void updateAcl(MutableAcl acl) {
+    public List<Long> updateAcl(MutableAcl acl) {
         Assert.notNull(acl.getId(), "Object Identity doesn't provide an identifier");
 
         // Update this ACL's ACEs in the acl_entry table
-        updateEntries(acl);
+        List<Long> aceIds = updateEntries(acl);
         // Change the mutable columns in acl_object_identity
         updateObjectIdentity(acl);
+        return aceIds;
     }
 
     @Override
@@ -79,42 +348,118 @@ public class OperationsImpl implements AclOperations, LookupOperations {
         return children.stream().map(this::toObjectIdentity).toList();
     }
 
+    @Override
+    public Map<Sid, Integer> findEffectiveMasks(ObjectIdentity oid) {
+        Assert.notNull(oid, "oid cannot be null");
+        // Per SID, the first ACE matching a bit decides it, like a single-bit isGranted call
+        Map<Pair<String, SidType>, int[]> grantedAndDecided = new LinkedHashMap<>();
+        for (AclInheritedAcePart part : oidRepository.findAcePartsWithAncestorsByObjectIdentity(oid)) {
+            int[] masks = grantedAndDecided.computeIfAbsent(Pair.of(part.getSid(), part.getSidType()), key -> new int[2]);
+            if (part.isGranting()) {
+                masks[0] |= part.getMask() & ~masks[1];
+                masks[1] |= part.getMask();
+            } else if (Integer.bitCount(part.getMask()) == 1) {
+                // A denying ACE only matches a check for exactly its mask
+                masks[1] |= part.getMask();
+            }
+        }
+        Map<Sid, Integer> effectiveMasks = new LinkedHashMap<>();
+        grantedAndDecided.forEach((pair, masks) -> {
+            if (masks[0] != 0) {
+                effectiveMasks.put(pair.getSecond().createSid(pair.getFirst()), masks[0]);
+            }
+        });
+        return effectiveMasks;
+    }
+
+    @Override
+    public KeysetSlice<ObjectIdentity> findPermittedObjectIdentities(String type, List<Sid> sids, Permission permission, @Nullable Long cursor, int size) {
+        Assert.hasText(type, "type cannot be empty");
+        Assert.notNull(permission, "permission cannot be null");
+        Assert.isTrue(size > 0, "size must be positive");
+        List<Pair<String, SidType>> sidPairs = sids.stream().map(this::toSidPair).distinct().toList();
+        List<ObjectIdentity> content = new ArrayList<>(size);
+        long afterId = cursor == null ? 0 : cursor;
+        int scanSize = Math.min(size, CHUNK_SIZE);
+        // Only objects with a matching granting ACE in their chain are candidates, so keep reading until the page is full
+        while (true) {
+            List<AclPermittedObjectPart> parts = oidRepository.findPermittedObjectPartsByType(type, sidPairs, permission.getMask(), afterId, scanSize);
+            for (AclPermittedObjectPart part : parts) {
+                afterId = part.getId();
+                if (part.isGranted()) {
+                    content.add(toObjectIdentity(new ObjectIdentitySource(part.getObjectIdIdentity(), part.getObjectIdNumber(), type, part.getClassIdType())));
+                    if (content.size() == size) {
+                        return new KeysetSlice<>(content, afterId);
+                    }
+                }
+            }
+            if (parts.size() < scanSize) {
+                return new KeysetSlice<>(content, null);
+            }
+            // Some candidates were denied, so widen the next range
+            scanSize = Math.min(scanSize * 2, CHUNK_SIZE);
+        }
+    }
+
     @Override
     public List<AclSource> findAclSourcesByObjectIdentityIn(Set<ObjectIdentity> oids) {
-        List<AclSourceBasePart> baseParts = oidRepository.findAclSourceBasePartsByObjectIdentityIn(oids);
-        Set<Long> oidIds = baseParts.stream().map(AclSourceBasePart::getObjectIdentityId).collect(Collectors.toSet());
-        Map<Long, List<AclSourceAcePart>> acePartsMap = entryRepository.findAclSourceAcePartsMap(oidIds);
-        return baseParts.stream().flatMap(basePart -> toAclSourceStream(basePart, acePartsMap)).toList();
+        return oidRepository.findAclSourcePartsByObjectIdentityIn(oids).stream().map(this::toAclSource).toList();
     }
 
     @Override
     public List<AclSource> findAclSourcesByObjectIdentityIdIn(Set<Long> ids) {
-        List<AclSourceBasePart> baseParts = oidRepository.findAclSourceBasePartsByObjectIdentityIdIn(ids);
-        Set<Long> oidIds = baseParts.stream().map(AclSourceBasePart::getObjectIdentityId).collect(Collectors.toSet());
-        Map<Long, List<AclSourceAcePart>> acePartsMap = entryRepository.findAclSourceAcePartsMap(oidIds);
-        return baseParts.stream().flatMap(basePart -> toAclSourceStream(basePart, acePartsMap)).toList();
+        return oidRepository.findAclSourcePartsByObjectIdentityIdIn(ids).stream().map(this::toAclSource).toList();
+    }
+
+    @Override
+    public List<AclSource> findAclSourcesWithAncestorsByObjectIdentityIn(Set<ObjectIdentity> oids) {
+        List<AclSourceBasePart> baseParts = closureRepository != null
+            ? oidRepository.findAclSourcePartsWithAncestorsByClosure(oids)
+            : oidRepository.findAclSourcePartsWithAncestorsByObjectIdentityIn(oids);
+        return baseParts.stream().map(this::toAclSource).toList();
+    }
+
+    @Override
+    public List<AclMatchedAcePart> findMatchedAcePartsWithAncestors(ObjectIdentity oid, List<Sid> sids, Permission permission) {
+        Assert.notNull(oid, "oid cannot be null");
+        Assert.notNull(permission, "permission cannot be null");
+        Set<String> sidNames = sids.stream().map(sid -> new SidHelper(sid).getSid()).collect(Collectors.toSet());
+        return oidRepository.findMatchedAcePartsWithAncestorsByObjectIdentity(oid, sidNames, permission.getMask());
+    }
+
+    public final void setClosureRepository(@Nullable AclObjectIdentityClosureRepository closureRepository) {
+        this.closureRepository = closureRepository;
     }
 
     private void saveObjectIdentity(@Nullable Long classId, ObjectIdentity oid, @Nullable Long sidId) {
         Assert.notNull(oid, "oid cannot be null");
-        AclSid aclSid = Optional.ofNullable(sidId).flatMap(sidRepository::findById)
+        AclSid aclSid = Optional.ofNullable(sidId).map(sidRepository::getById)
             .orElseThrow(() -> new IllegalArgumentException("cannot found AclSid entity by id: " + sidId));
-        AclClass aclClass = Optional.ofNullable(classId).flatMap(classRepository::findById)
+        AclClass aclClass = Optional.ofNullable(classId).map(classRepository::getById)
             .orElseThrow(() -> new IllegalArgumentException("cannot found AclClass entity by id: " + classId));
         AclObjectIdentity entity = AclObjectIdentity.builder()
             .objectIdIdentity(oid.getIdentifier().toString())
+            .objectIdNumber(ObjectIdNumberUtils.toObjectIdNumber(oid.getIdentifier()))
             .entriesInheriting(true)
             .ownerSid(aclSid)
             .objectIdClass(aclClass)
             .build();
-        oidRepository.save(entity);
+        Long id = oidRepository.save(entity).getId();
+        insertClosures(Collections.singletonMap(id, null));
     }
 
     private Long saveSid(SidType sidType, String sidName) {
         Assert.notNull(sidType, "sidType cannot be null");
         Assert.hasText(sidName, "sidName cannot be blank");
-        AclSid entity = AclSid.builder().type(sidType).sid(sidName).build();
-        return sidRepository.save(entity).getId();
+        try {
+            return newTransactionOperations.execute(status -> {
+                AclSid entity = AclSid.builder().type(sidType).sid(sidName).build();
+                return sidRepository.save(entity).getId();
+            });
+        } catch (DataIntegrityViolationException e) {
+            // Another transaction inserted the same SID first
+            return sidRepository.findIdByTypeAndSid(sidType, sidName).orElseThrow(() -> e);
+        }
     }
 
     /**
@@ -138,8 +483,8 @@ public class OperationsImpl implements AclOperations, LookupOperations {
      * @return the primary key or null if not found
      */
     private Long createOrRetrieveSidPrimaryKey(String sidName, SidType sidType) {
-        return sidRepository.findIdByTypeAndSid(sidType, sidName)
-            .orElseGet(() -> saveSid(sidType, sidName));
+        return sidIdCache.get(Pair.of(sidName, sidType), pair -> sidRepository.findIdByTypeAndSid(sidType, sidName)
+            .orElseGet(() -> saveSid(sidType, sidName)));
     }
 
     /**
@@ -150,55 +495,102 @@ public class OperationsImpl implements AclOperations, LookupOperations {
      * @return the primary key or null if not found
      */
     private Long createOrRetrieveClassPrimaryKey(String type, Class<?> idType) {
-        return classRepository.findIdByType(type)
-            .orElseGet(() -> saveClass(type, idType.getCanonicalName()));
+        return classIdCache.get(type, key -> classRepository.findIdByType(type)
+            .orElseGet(() -> saveClass(type, idType.getCanonicalName())));
     }
 
     private Long saveClass(String type, @Nullable String idClassName) {
-        AclClass entity = AclClass.builder().className(type).classIdType(idClassName).build();
-        return classRepository.save(entity).getId();
-    }
-
-    private void deleteEntries(ObjectIdentity oid) {
-        AclObjectIdentity aclOid = getAclObjectIdentity(oid);
-        List<AclEntry> entities = entryRepository.findAllByObjectIdentity(aclOid);
-        entryRepository.deleteAll(entities);
-    }
-
-    private void deleteObjectIdentity(ObjectIdentity oid) {
-        AclObjectIdentity aclOid = getAclObjectIdentity(oid);
-        oidRepository.delete(aclOid);
+        try {
+            return newTransactionOperations.execute(status -> {
+                AclClass entity = AclClass.builder().className(type).classIdType(idClassName).build();
+                return classRepository.save(entity).getId();
+            });
+        } catch (DataIntegrityViolationException e) {
+            // Another transaction inserted the same class first
+            return classRepository.findIdByType(type).orElseThrow(() -> e);
+        }
     }
 
-    private void updateEntries(MutableAcl acl) {
+    private List<Long> updateEntries(MutableAcl acl) {
         long oidId = (Long) acl.getId();
         List<AccessControlEntry> entries = acl.getEntries();
         List<Sid> sids = entries.stream().map(AccessControlEntry::getSid).toList();
-        Set<Long> sidIds = saveSids(sids);
-        saveEntries(oidId, entries, sidIds);
+        Map<Pair<String, SidType>, Long> sidIds = saveSids(sids);
+        return saveEntries(oidId, entries, sidIds);
     }
 
-    private Set<Long> saveSids(List<Sid> sids) {
+    private Map<Pair<String, SidType>, Long> saveSids(List<Sid> sids) {
         Set<Pair<String, SidType>> sidAndTypePairs = sids.stream()
-            .map(SidHelper::new)
-            .map(sid -> Pair.of(sid.getSid(), sid.getType()))
+            .map(this::toSidPair)
             .collect(Collectors.toSet());
-        Map<Pair<String, SidType>, AclSid> sidMap = sidRepository.findMapBySidAndTypePairIn(sidAndTypePairs);
-        return sidAndTypePairs.stream().map(pair -> getAclSidId(sidMap, pair)).collect(Collectors.toSet());
+        return sidIdCache.getAll(sidAndTypePairs, this::createOrRetrieveSidPrimaryKeys);
+    }
+
+    /**
+     * 캐시 되지 않은 SID 들의 아이디를 한번에 조회 하고, 없는 SID 는 저장 한다.
+     * @param sidAndTypePairs SID, 타입 쌍 목록
+     * @return SID, 타입 쌍 별 아이디 맵
+     */
+    private Map<Pair<String, SidType>, Long> createOrRetrieveSidPrimaryKeys(Iterable<? extends Pair<String, SidType>> sidAndTypePairs) {
+        Set<Pair<String, SidType>> pairs = new HashSet<>();
+        sidAndTypePairs.forEach(pairs::add);
+        Map<Pair<String, SidType>, AclSid> sidMap = sidRepository.findMapBySidAndTypePairIn(pairs);
+        Map<Pair<String, SidType>, Long> sidIds = new HashMap<>();
+        pairs.forEach(pair -> sidIds.put(pair, getAclSidId(sidMap, pair)));
+        return sidIds;
     }
 
-    private void saveEntries(long oidId, List<AccessControlEntry> entries, Set<Long> sidIds) {
-        AclObjectIdentity aclOid = oidRepository.findById(oidId).orElseThrow();
+    /**
+     * 변경 된 ACE 만 저장 한다.
+     * 삭제 된 ACE 는 한번에 삭제 하고, 순서가 바뀐 ACE 는 (aclObjectIdentity, aceOrder) 유일 제약 조건을
+     * 피하기 위해 임시 음수 순서로 먼저 옮긴 뒤 최종 순서로 저장 한다. 추가 된 ACE 는 JDBC 배치로 저장 된다.
+     * @param oidId 객체 식별 정보 아이디
+     * @param entries ACE 목록
+     * @param sidIds SID, 타입 쌍 별 ACE SID 아이디 맵
+     * @return ACE 순서대로 저장 된 ACE 아이디 목록
+     */
+    private List<Long> saveEntries(long oidId, List<AccessControlEntry> entries, Map<Pair<String, SidType>, Long> sidIds) {
+        AclObjectIdentity aclOid = oidRepository.getById(oidId);
         Map<Long, AclEntry> entityMap = entryRepository.findMapByObjectIdentity(aclOid);
-        Map<Pair<String, SidType>, AclSid> sidMap = sidRepository.findMapByIdIn(sidIds);
-        Set<Long> ids = IntStream.range(0, entries.size())
-            .mapToObj(i -> Pair.of(entries.get(i), i))
-            .map(pair -> saveEntry(pair.getFirst(), pair.getSecond(), entityMap, aclOid, sidMap))
+
+        // Delete removed rows first, so that their orders are free for the remaining ones
+        Set<Long> keptIds = entries.stream()
+            .map(AccessControlEntry::getId)
+            .filter(Objects::nonNull)
+            .map(Long.class::cast)
             .collect(Collectors.toSet());
-        entityMap.entrySet().stream()
-            .filter(entry -> !ids.contains(entry.getKey()))
-            .map(Map.Entry::getValue)
-            .forEach(entryRepository::delete);
+        List<Long> deletedIds = entityMap.keySet().stream().filter(id -> !keptIds.contains(id)).toList();
+        if (!deletedIds.isEmpty()) {
+            entryRepository.deleteAllByIdInBatch(deletedIds);
+        }
+
+        List<AclEntry> savedEntities = new ArrayList<>(entries.size());
+        List<AclEntry> movedEntities = new ArrayList<>();
+        List<AclEntry> createdEntities = new ArrayList<>();
+        for (int aceOrder = 0; aceOrder < entries.size(); aceOrder++) {
+            AccessControlEntry entry = entries.get(aceOrder);
+            AclEntry entity;
+            if (entry.getId() != null) {
+                entity = Optional.ofNullable(entityMap.get((Long) entry.getId())).orElseThrow();
+                if (entity.getAceOrder() != aceOrder) {
+                    entity.setAceOrder(-aceOrder - 1);
+                    movedEntities.add(entity);
+                }
+                updateAclEntity(entity, entry);
+            } else {
+                entity = createAclEntity(entry, aceOrder, aclOid, sidIds);
+                createdEntities.add(entity);
+            }
+            savedEntities.add(entity);
+        }
+
+        // Two-phase reorder: flush the temporary negative orders, then the final ones
+        if (!movedEntities.isEmpty()) {
+            entryRepository.flush();
+            movedEntities.forEach(entity -> entity.setAceOrder(-entity.getAceOrder() - 1));
+        }
+        entryRepository.saveAll(createdEntities);
+        return savedEntities.stream().map(AclEntry::getId).toList();
     }
 
     /**
@@ -222,81 +614,200 @@ public class OperationsImpl implements AclOperations, LookupOperations {
         Assert.notNull(id, "id cannot be null");
         AclObjectIdentity entity = oidRepository.findById((Long) id)
             .orElseThrow(() -> new NotFoundException("Unable to locate ACL to update"));
+        Long oldParentId = Optional.ofNullable(entity.getParentObject()).map(AclObjectIdentity::getId).orElse(null);
         Optional.ofNullable(parentId).flatMap(oidRepository::findById).ifPresent(entity::setParentObject);
-        sidRepository.findById(ownerSid).ifPresent(entity::setOwnerSid);
+        entity.setOwnerSid(sidRepository.getById(ownerSid));
         entity.setEntriesInheriting(entriesInheriting);
         oidRepository.save(entity);
+        if (closureRepository != null && parentId != null && !parentId.equals(oldParentId)) {
+            closureRepository.moveSubtree(entity.getId(), parentId);
+        }
     }
 
-    private Stream<AclSource> toAclSourceStream(AclSourceBasePart basePart, Map<Long, List<AclSourceAcePart>> acePartsMap) {
-        List<AclSourceAcePart> aceParts = acePartsMap.getOrDefault(basePart.getObjectIdentityId(), Collections.emptyList());
-        if (aceParts.isEmpty()) {
-            return Stream.of(toAclSource(basePart));
-        } else {
-            return aceParts.stream().map(acePart -> toAclSource(basePart, acePart));
+    /**
+     * 조상 closure 테이블을 사용 하면 새 객체 식별 정보들의 closure 저장
+     * @param parentIdsById 객체 식별 정보 아이디 별 부모 아이디 맵 (부모가 먼저 오는 순서, 부모가 없으면 null)
+     */
+    private void insertClosures(Map<Long, Long> parentIdsById) {
+        if (closureRepository != null) {
+            closureRepository.insertAll(parentIdsById);
         }
     }
 
-    private AclSource toAclSource(AclSourceBasePart basePart) {
-        return toAclSource(basePart, null);
+    /**
+     * 같은 배치 안의 부모가 자식 보다 먼저 오도록 정렬
+     * @param parentIdsById 객체 식별 정보 아이디 별 부모 아이디 맵
+     * @return 부모가 먼저 오는 순서의 맵
+     */
+    private static Map<Long, Long> sortParentFirst(Map<Long, Long> parentIdsById) {
+        Map<Long, Long> sorted = new LinkedHashMap<>();
+        for (Long id : parentIdsById.keySet()) {
+            Deque<Long> chain = new ArrayDeque<>();
+            for (Long current = id; current != null && parentIdsById.containsKey(current) && !sorted.containsKey(current) && !chain.contains(current); current = parentIdsById.get(current)) {
+                chain.push(current);
+            }
+            chain.forEach(current -> sorted.put(current, parentIdsById.get(current)));
+        }
+        return sorted;
+    }
+
+    /**
+     * ACE 명세로 저장 할 ACE entity 목록 생성
+     * @param aclOid 객체 식별 정보 entity
+     * @param aces ACE 명세 목록
+     * @param sidIds SID, 타입 쌍 별 ACE SID 아이디 맵
+     * @return ACE entity 목록 (명세 순서)
+     */
+    private List<AclEntry> newAclEntries(AclObjectIdentity aclOid, List<AceSpec> aces, Map<Pair<String, SidType>, Long> sidIds) {
+        List<AclEntry> entities = new ArrayList<>(aces.size());
+        for (int aceOrder = 0; aceOrder < aces.size(); aceOrder++) {
+            AceSpec ace = aces.get(aceOrder);
+            entities.add(AclEntry.builder()
+                .aceOrder(aceOrder)
+                .mask(ace.getPermission().getMask())
+                .granting(ace.isGranting())
+                .auditSuccess(ace.isAuditSuccess())
+                .auditFailure(ace.isAuditFailure())
+                .objectIdentity(aclOid)
+                .sid(sidRepository.getById(sidIds.get(toSidPair(ace.getSid()))))
+                .build());
+        }
+        return entities;
     }
 
-    private AclSource toAclSource(AclSourceBasePart basePart, @Nullable AclSourceAcePart acePart) {
-        AclSource.AclSourceBuilder builder = AclSource.builder()
+    /**
+     * 저장 한 ACL 명세를 다시 조회 하지 않고 ACL 소스 정보로 변환
+     * @param spec ACL 명세
+     * @param aclId 저장 된 객체 식별 정보 아이디
+     * @param parentId 부모 객체 식별 정보 아이디
+     * @param entryIterator 저장 된 ACE entity (명세의 ACE 순서로 소비)
+     * @return ACL 소스 정보
+     */
+    private AclSource toAclSource(AclSpec spec, long aclId, @Nullable Long parentId, Iterator<AclEntry> entryIterator) {
+        SidHelper owner = new SidHelper(spec.getOwner());
+        List<AclSourceAcePart> aceParts = spec.getAces().stream().map(ace -> {
+            SidHelper sid = new SidHelper(ace.getSid());
+            AclEntry entity = entryIterator.next();
+            return new AclSourceAcePart(entity.getId(), sid.getSid(), sid.getType(), entity.getMask(), entity.getGranting(), entity.getAuditSuccess(), entity.getAuditFailure());
+        }).toList();
+        return AclSource.builder()
+            .aclId(aclId)
+            .aclParentId(parentId)
+            .entriesInheriting(spec.isEntriesInheriting())
+            .identifier(spec.getObjectIdentity().getIdentifier())
+            .type(spec.getObjectIdentity().getType())
+            .aclSidType(owner.getType())
+            .aclSid(owner.getSid())
+            .aces(aceParts)
+            .build();
+    }
+
+    private AclSource toAclSource(AclSourceBasePart basePart) {
+        return AclSource.builder()
             .aclId(basePart.getObjectIdentityId())
             .aclParentId(basePart.getParentObjectIdentityId())
             .entriesInheriting(Optional.ofNullable(basePart.getEntriesInheriting()).orElse(false))
-            .identifier(Optional.ofNullable(basePart.getClassIdType())
-                .map(this::toClass)
-                .map(type -> convert(basePart.getObjectIdIdentity(), type))
-                .orElse(basePart.getObjectIdIdentity()))
+            .identifier(toIdentifier(basePart.getObjectIdIdentity(), basePart.getObjectIdNumber(), basePart.getClassIdType()))
             .type(basePart.getClassName())
             .aclSidType(basePart.getSidType())
-            .aclSid(basePart.getSid());
-        if (acePart != null) {
-            builder
-                .aceId(acePart.getId())
-                .aceSid(acePart.getSid())
-                .aceSidType(acePart.getSidType())
-                .mask(Optional.ofNullable(acePart.getMask()).orElse(0))
-                .granting(Optional.ofNullable(acePart.getGranting()).orElse(false))
-                .auditSuccess(Optional.ofNullable(acePart.getAuditSuccess()).orElse(false))
-                .auditFailure(Optional.ofNullable(acePart.getAuditFailure()).orElse(false));
+            .aclSid(basePart.getSid())
+            .aces(basePart.getAceParts())
+            .build();
+    }
+
+    /**
+     * 객체 식별 정보 아이디 일괄 조회
+     * @param oids 객체 식별 정보 목록
+     * @return 객체 식별 정보 아이디 목록
+     * @throws NotFoundException 저장 되지 않은 객체 식별 정보가 있는 경우
+     */
+    private List<Long> getObjectIdentityIds(Collection<ObjectIdentity> oids) throws NotFoundException {
+        Assert.notNull(oids, "oids cannot be null");
+        List<ObjectIdentity> distinctOids = new ArrayList<>(new LinkedHashSet<>(oids));
+        List<Long> ids = new ArrayList<>(distinctOids.size());
+        for (List<ObjectIdentity> chunk : partition(distinctOids)) {
+            Map<Pair<String, String>, Long> idMap = oidRepository.findIdMapByObjectIdentityIn(new HashSet<>(chunk));
+            for (ObjectIdentity oid : chunk) {
+                Long id = idMap.get(toKey(oid));
+                if (id == null) {
+                    throw new NotFoundException("Unable to find ACL information for object identity '" + oid + "'");
+                }
+                ids.add(id);
+            }
         }
-        return builder.build();
+        return ids;
     }
 
-    private AclObjectIdentity getAclObjectIdentity(ObjectIdentity oid) {
-        Assert.notNull(oid, "oid cannot be null");
-        return oidRepository.findByObjectIdentity(oid)
-            .orElseThrow(() -> new IllegalArgumentException("cannot found AclObjectIdentity entity by ObjectIdentity: " + oid));
+    private static <T> List<List<T>> partition(List<T> values) {
+        List<List<T>> chunks = new ArrayList<>();
+        for (int from = 0; from < values.size(); from += CHUNK_SIZE) {
+            chunks.add(values.subList(from, Math.min(from + CHUNK_SIZE, values.size())));
+        }
+        return chunks;
+    }
+
+    private Pair<String, String> toKey(ObjectIdentity oid) {
+        return Pair.of(oid.getType(), oid.getIdentifier().toString());
+    }
+
+    private Pair<String, SidType> toSidPair(Sid sid) {
+        SidHelper sidHelper = new SidHelper(sid);
+        return Pair.of(sidHelper.getSid(), sidHelper.getType());
     }
 
     private ObjectIdentity toObjectIdentity(ObjectIdentitySource source) {
-        Serializable identifier = Optional.ofNullable(source.getClassIdType())
-            .map(this::toClass)
-            .map(type -> convert(source.getObjectIdIdentity(), type))
-            .orElse(source.getObjectIdIdentity());
+        Serializable identifier = toIdentifier(source.getObjectIdIdentity(), source.getObjectIdNumber(), source.getClassIdType());
         return new ObjectIdentityImpl(source.getClassName(), identifier);
     }
 
-    @SuppressWarnings("unchecked")
-    private <T extends Serializable> Class<T> toClass(String className) {
-        try {
-            return (Class<T>) Class.forName(className);
-        }
-        catch (ClassNotFoundException ex) {
-            log.debug("Unable to find class type on classpath", ex);
-            return null;
+    /**
+     * 저장 된 객체 식별 정보를 객체 식별 정보 아이디 타입으로 변환 (정수 타입은 숫자 컬럼 값을 그대로 사용)
+     * @param objectIdIdentity 객체 식별 정보
+     * @param objectIdNumber 정수 객체 식별 정보
+     * @param classIdType 객체 식별 정보 아이디 타입
+     * @return 객체 식별 정보
+     */
+    private Serializable toIdentifier(String objectIdIdentity, @Nullable Long objectIdNumber, @Nullable String classIdType) {
+        if (objectIdNumber != null && Long.class.getName().equals(classIdType)) {
+            return objectIdNumber;
+        } else if (objectIdNumber != null && Integer.class.getName().equals(classIdType)) {
+            return objectIdNumber.intValue();
+        } else if (classIdType == null) {
+            return objectIdIdentity;
+        } else {
+            return identifierConverterCache.get(classIdType, this::resolveIdentifierConverter).apply(objectIdIdentity);
         }
     }
 
-    private <T extends Serializable> T convert(String objectIdIdentity, Class<T> targetType) {
-        if (objectIdentifierConversionService.canConvert(String.class, targetType)) {
-            return objectIdentifierConversionService.convert(objectIdIdentity, targetType);
-        } else {
-            return null;
+    /**
+     * 객체 식별 정보 아이디 타입의 변환 함수 생성.
+     * Long, Integer, UUID, String 은 conversion service 를 거치지 않고 바로 변환 하며,
+     * 클래스를 찾을 수 없거나 변환 할 수 없는 타입은 문자열 그대로 사용 한다.
+     * @param classIdType 객체 식별 정보 아이디 타입
+     * @return 변환 함수
+     */
+    private Function<String, Serializable> resolveIdentifierConverter(String classIdType) {
+        if (Long.class.getName().equals(classIdType)) {
+            return Long::valueOf;
+        } else if (Integer.class.getName().equals(classIdType)) {
+            return Integer::valueOf;
+        } else if (UUID.class.getName().equals(classIdType)) {
+            return UUID::fromString;
+        } else if (String.class.getName().equals(classIdType)) {
+            return objectIdIdentity -> objectIdIdentity;
+        }
+
+        Class<?> targetType;
+        try {
+            targetType = Class.forName(classIdType);
+        } catch (ClassNotFoundException ex) {
+            log.debug("Unable to find class type on classpath", ex);
+            return objectIdIdentity -> objectIdIdentity;
+        }
+        if (!Serializable.class.isAssignableFrom(targetType) || !objectIdentifierConversionService.canConvert(String.class, targetType)) {
+            return objectIdIdentity -> objectIdIdentity;
         }
+        return objectIdIdentity -> (Serializable) objectIdentifierConversionService.convert(objectIdIdentity, targetType);
     }
 
     private Long getAclSidId(Map<Pair<String, SidType>, AclSid> sidMap, Pair<String, SidType> pair) {
@@ -308,32 +819,31 @@ public class OperationsImpl implements AclOperations, LookupOperations {
         }
     }
 
-    private long saveEntry(
-        AccessControlEntry entry,
-        int aceOrder,
-        Map<Long, AclEntry> entityMap,
-        AclObjectIdentity aclOid,
-        Map<Pair<String, SidType>, AclSid> sidMap
-    ) {
-        AclEntry entity = entry.getId() != null
-            ? updateAclEntity(entry, aceOrder, entityMap)
-            : createAclEntity(entry, aceOrder, aclOid, sidMap);
-        return entity.getId();
-    }
-
-    private AclEntry updateAclEntity(AccessControlEntry entry, int aceOrder, Map<Long, AclEntry> entityMap) {
-        AclEntry entity = Optional.ofNullable(entityMap.get((Long) entry.getId())).orElseThrow();
-        entity.setAceOrder(aceOrder);
-        entity.setMask(entry.getPermission().getMask());
-        return entryRepository.save(entity);
+    /**
+     * 변경 된 컬럼만 entity 에 반영 (변경이 없으면 UPDATE 문이 실행 되지 않음)
+     * @param entity ACE entity
+     * @param entry ACE 객체
+     */
+    private void updateAclEntity(AclEntry entity, AccessControlEntry entry) {
+        int mask = entry.getPermission().getMask();
+        if (entity.getMask() != mask) {
+            entity.setMask(mask);
+        }
+        if (entry instanceof AuditableAccessControlEntry auditableEntry) {
+            if (entity.getAuditSuccess() != auditableEntry.isAuditSuccess()) {
+                entity.setAuditSuccess(auditableEntry.isAuditSuccess());
+            }
+            if (entity.getAuditFailure() != auditableEntry.isAuditFailure()) {
+                entity.setAuditFailure(auditableEntry.isAuditFailure());
+            }
+        }
     }
 
-    private AclEntry createAclEntity(AccessControlEntry entry, int aceOrder, AclObjectIdentity aclOid, Map<Pair<String, SidType>, AclSid> sidMap) {
+    private AclEntry createAclEntity(AccessControlEntry entry, int aceOrder, AclObjectIdentity aclOid, Map<Pair<String, SidType>, Long> sidIds) {
         Assert.isTrue(entry instanceof AccessControlEntryImpl, "Unknown ACE class");
         AccessControlEntryImpl entryImpl = (AccessControlEntryImpl) entry;
-        SidHelper sidHelper = new SidHelper(entry.getSid());
-        AclSid aclSid = sidMap.get(Pair.of(sidHelper.getSid(), sidHelper.getType()));
-        AclEntry entity = AclEntry.builder()
+        AclSid aclSid = sidRepository.getById(sidIds.get(toSidPair(entry.getSid())));
+        return AclEntry.builder()
             .aceOrder(aceOrder)
             .mask(entry.getPermission().getMask())
             .granting(entry.isGranting())
@@ -342,6 +852,5 @@ public class OperationsImpl implements AclOperations, LookupOperations {
             .objectIdentity(aclOid)
             .sid(aclSid)
             .build();
-        return entryRepository.save(entity);
     }
 }
@@ -0,0 +1,176 @@
+package com.jacknie.example.custom;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.jacknie.example.repository.acl.AclMatchedAcePart;
+import lombok.RequiredArgsConstructor;
+import org.springframework.data.util.Pair;
+import org.springframework.lang.Nullable;
+import org.springframework.security.access.PermissionEvaluator;
+import org.springframework.security.acls.domain.DefaultPermissionFactory;
+import org.springframework.security.acls.domain.ObjectIdentityRetrievalStrategyImpl;
+import org.springframework.security.acls.domain.PermissionFactory;
+import org.springframework.security.acls.domain.SidRetrievalStrategyImpl;
+import org.springframework.security.acls.model.*;
+import org.springframework.security.core.Authentication;
+import org.springframework.util.Assert;
+
+import java.io.Serializable;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * 캐시 되지 않은 ACL 의 단일 권한 검사를 ACL 객체 생성 없이 쿼리 1회로 처리 하는 권한 평가기.
+ * 가장 가까운 ACL 에서 일치 하는 ACE 중 SID 순서, ACE 순서로 첫번째 ACE 가 결과를 결정 하며,
+ * ACE 일치 여부는 {@code CumulativePermissionGrantingStrategy} 와 같다. (감사 로그는 남기지 않음)
+ * 캐시 된 ACL 이나 여러 권한 검사는 위임 평가기로 처리 하고,
+ * 캐시 되지 않은 ACL 이 정해진 횟수 만큼 검사 되면 위임 평가기로 처리 해서 캐시에 저장 되게 한다.
+ */
+@RequiredArgsConstructor
+public class PushdownPermissionEvaluator implements PermissionEvaluator {
+
+    private final PermissionEvaluator delegate;
+    private final LookupOperations lookupOperations;
+    private final EnhancedAclCache aclCache;
+
+    /**
+     * 캐시 되지 않은 ACL 별 검사 횟수 (캐시 저장 대상 선정용)
+     */
+    private final Cache<ObjectIdentity, AtomicInteger> missCounts = Caffeine.newBuilder().maximumSize(10_000).build();
+
+    private ObjectIdentityRetrievalStrategy objectIdentityRetrievalStrategy = new ObjectIdentityRetrievalStrategyImpl();
+    private ObjectIdentityGenerator objectIdentityGenerator = new ObjectIdentityRetrievalStrategyImpl();
+    private SidRetrievalStrategy sidRetrievalStrategy = new SidRetrievalStrategyImpl();
+    private PermissionFactory permissionFactory = new DefaultPermissionFactory();
+
+    /**
+     * 캐시 되지 않은 ACL 이 캐시에 저장 되기 까지의 검사 횟수 (1 이면 항상 위임 평가기로 처리)
+     */
+    private int warmUpThreshold = 2;
+
+    @Override
+    public boolean hasPermission(Authentication authentication, Object domainObject, Object permission) {
+        if (domainObject == null) {
+            return false;
+        }
+        ObjectIdentity oid = objectIdentityRetrievalStrategy.getObjectIdentity(domainObject);
+        Permission singlePermission = resolveSinglePermission(permission);
+        if (singlePermission == null || aclCache.isCached(oid) || isWarmUpTarget(oid)) {
+            return delegate.hasPermission(authentication, domainObject, permission);
+        }
+        return isGranted(oid, singlePermission, sidRetrievalStrategy.getSids(authentication));
+    }
+
+    @Override
+    public boolean hasPermission(Authentication authentication, Serializable targetId, String targetType, Object permission) {
+        ObjectIdentity oid = objectIdentityGenerator.createObjectIdentity(targetId, targetType);
+        Permission singlePermission = resolveSinglePermission(permission);
+        if (singlePermission == null || aclCache.isCached(oid) || isWarmUpTarget(oid)) {
+            return delegate.hasPermission(authentication, targetId, targetType, permission);
+        }
+        return isGranted(oid, singlePermission, sidRetrievalStrategy.getSids(authentication));
+    }
+
+    public final void setObjectIdentityRetrievalStrategy(ObjectIdentityRetrievalStrategy objectIdentityRetrievalStrategy) {
+        Assert.notNull(objectIdentityRetrievalStrategy, "objectIdentityRetrievalStrategy cannot be null");
+        this.objectIdentityRetrievalStrategy = objectIdentityRetrievalStrategy;
+    }
+
+    public final void setObjectIdentityGenerator(ObjectIdentityGenerator objectIdentityGenerator) {
+        Assert.notNull(objectIdentityGenerator, "objectIdentityGenerator cannot be null");
+        this.objectIdentityGenerator = objectIdentityGenerator;
+    }
+
+    public final void setSidRetrievalStrategy(SidRetrievalStrategy sidRetrievalStrategy) {
+        Assert.notNull(sidRetrievalStrategy, "sidRetrievalStrategy cannot be null");
+        this.sidRetrievalStrategy = sidRetrievalStrategy;
+    }
+
+    public final void setPermissionFactory(PermissionFactory permissionFactory) {
+        Assert.notNull(permissionFactory, "permissionFactory cannot be null");
+        this.permissionFactory = permissionFactory;
+    }
+
+    public final void setWarmUpThreshold(int warmUpThreshold) {
+        Assert.isTrue(warmUpThreshold > 0, "warmUpThreshold must be greater than 0");
+        this.warmUpThreshold = warmUpThreshold;
+    }
+
+    /**
+     * 검사 횟수를 세어서 캐시에 저장 할 차례인지 판단 (차례가 되면 횟수 초기화)
+     * @param oid 캐시 되지 않은 ACL 의 객체 식별 정보
+     * @return 위임 평가기로 처리 해서 캐시에 저장 할지 여부
+     */
+    private boolean isWarmUpTarget(ObjectIdentity oid) {
+        AtomicInteger missCount = missCounts.get(oid, key -> new AtomicInteger());
+        if (missCount.incrementAndGet() < warmUpThreshold) {
+            return false;
+        }
+        missCounts.invalidate(oid);
+        return true;
+    }
+
+    /**
+     * 일치 하는 ACE 목록으로 권한 부여 여부 판단 (일치 하는 ACE 가 없으면 ACL 이 없는 경우와 같이 거부)
+     * @param oid 객체 식별 정보
+     * @param permission 권한
+     * @param sids 현재 사용자의 보안 식별 정보 목록
+     * @return 권한 부여 여부
+     */
+    private boolean isGranted(ObjectIdentity oid, Permission permission, List<Sid> sids) {
+        Map<Pair<String, SidType>, Integer> sidOrders = new HashMap<>();
+        for (int i = 0; i < sids.size(); i++) {
+            SidHelper sidHelper = new SidHelper(sids.get(i));
+            sidOrders.putIfAbsent(Pair.of(sidHelper.getSid(), sidHelper.getType()), i);
+        }
+
+        // The nearest ACL with a match decides, by its first SID and then its first ACE
+        AclMatchedAcePart decision = null;
+        int decisionSidOrder = Integer.MAX_VALUE;
+        for (AclMatchedAcePart part : lookupOperations.findMatchedAcePartsWithAncestors(oid, sids, permission)) {
+            Integer sidOrder = sidOrders.get(Pair.of(part.getSid(), part.getSidType()));
+            if (sidOrder == null) {
+                continue;
+            }
+            if (decision != null && part.getDepth() > decision.getDepth()) {
+                break;
+            }
+            if (sidOrder < decisionSidOrder) {
+                decision = part;
+                decisionSidOrder = sidOrder;
+            }
+        }
+        return decision != null && decision.isGranting();
+    }
+
+    /**
+     * 단일 권한으로 변환 (여러 권한이거나 변환 할 수 없으면 null)
+     * @param permission 권한 표현
+     * @return 단일 권한
+     */
+    @Nullable
+    private Permission resolveSinglePermission(Object permission) {
+        if (permission instanceof Integer mask) {
+            return permissionFactory.buildFromMask(mask);
+        } else if (permission instanceof Permission singlePermission) {
+            return singlePermission;
+        } else if (permission instanceof Permission[] permissions && permissions.length == 1) {
+            return permissions[0];
+        } else if (permission instanceof String name) {
+            try {
+                return permissionFactory.buildFromName(name);
+            } catch (IllegalArgumentException notFound) {
+                try {
+                    return permissionFactory.buildFromName(name.toUpperCase(Locale.ENGLISH));
+                } catch (IllegalArgumentException upperCaseNotFound) {
+                    return null;
+                }
+            }
+        } else {
+            return null;
+        }
+    }
+}
@@ -0,0 +1,45 @@
+package com.jacknie.example.repository;
+
+import org.springframework.util.Assert;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * in 절 파라미터 개수를 고정 된 크기(2의 거듭제곱)로 맞춰 생성 되는 SQL 문장 종류를 제한하는 sugar code
+ */
+public abstract class InClauseParameterUtils {
+
+    private InClauseParameterUtils() {
+        throw new UnsupportedOperationException();
+    }
+
+    /**
+     * 값 목록의 크기를 다음 버킷 크기까지 마지막 값으로 채운다.
+     * @param values 값 목록
+     * @param <T> 값 타입
+     * @return 버킷 크기로 채워진 값 목록
+     */
+    public static <T> List<T> padToBucketSize(Collection<T> values) {
+        Assert.notEmpty(values, "values cannot be empty");
+        List<T> padded = new ArrayList<>(values);
+        int bucketSize = getBucketSize(padded.size());
+        T last = padded.get(padded.size() - 1);
+        while (padded.size() < bucketSize) {
+            padded.add(last);
+        }
+        return padded;
+    }
+
+    /**
+     * 값 개수를 담을 수 있는 가장 작은 버킷 크기
+     * @param size 값 개수
+     * @return 버킷 크기
+     */
+    public static int getBucketSize(int size) {
+        Assert.isTrue(size > 0, "size must be > 0");
+        return size == 1 ? 1 : Integer.highestOneBit(size - 1) << 1;
+    }
+
+}
@@ -13,11 +13,15 @@ import java.util.Objects;
 @AllArgsConstructor
 @Builder
 @Entity
-@Table(uniqueConstraints = @UniqueConstraint(columnNames = { "aclObjectIdentity", "aceOrder" }))
+@Table(
+    uniqueConstraints = @UniqueConstraint(columnNames = { "aclObjectIdentity", "aceOrder" }),
+    indexes = @Index(name = "acl_entry_sid_idx", columnList = "sid, aclObjectIdentity")
+)
 public class AclEntry {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "aclEntrySequence")
+    @SequenceGenerator(name = "aclEntrySequence", sequenceName = "acl_entry_seq", allocationSize = 50)
     private Long id;
 
     @Column(nullable = false)
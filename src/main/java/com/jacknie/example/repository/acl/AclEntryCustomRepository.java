@@ -1,22 +1,72 @@
 package com.jacknie.example.repository.acl;
 
-import java.util.List;
+import java.util.Collection;
 import java.util.Map;
 import java.util.Set;
 
 public interface AclEntryCustomRepository {
 
-    /**
-     * ACL 소스 데이터 ACE 파트 정보 목록 맵 조회
-     * @param oidIds 객체 식별 정보 아이디 목록
-     * @return ACE 파트 정보 목록 맵
-     */
-    Map<Long, List<AclSourceAcePart>> findAclSourceAcePartsMap(Set<Long> oidIds);
-
     /**
      * ACE 정보 맵 조회
      * @param aclOid 객체 식별 정보 entity
      * @return ACE 정보 맵
      */
     Map<Long, AclEntry> findMapByObjectIdentity(AclObjectIdentity aclOid);
+
+    /**
+     * 객체 식별 정보들의 ACE 일괄 삭제
+     * @param oidIds 객체 식별 정보 아이디 목록
+     * @return 삭제 된 ACE 개수
+     */
+    long deleteAllByObjectIdentityIdIn(Collection<Long> oidIds);
+
+    /**
+     * SID 의 권한 부여 ACE 마스크 조회 (객체 식별 정보 별로 OR 연산)
+     * @param oidIds 객체 식별 정보 아이디 목록
+     * @param sidId SID 아이디
+     * @return 객체 식별 정보 아이디 별 마스크 맵 (권한 부여 ACE 가 없으면 제외)
+     */
+    Map<Long, Integer> findGrantingMaskMapBySidId(Collection<Long> oidIds, long sidId);
+
+    /**
+     * SID 의 권한 거부 ACE 중 마스크가 같은 ACE 가 있는 객체 식별 정보 아이디 조회
+     * @param oidIds 객체 식별 정보 아이디 목록
+     * @param sidId SID 아이디
+     * @param mask 마스크
+     * @return 객체 식별 정보 아이디 목록
+     */
+    Set<Long> findDenyingObjectIdentityIdsBySidId(Collection<Long> oidIds, long sidId, int mask);
+
+    /**
+     * 객체 식별 정보 별 마지막 ACE 순서 조회
+     * @param oidIds 객체 식별 정보 아이디 목록
+     * @return 객체 식별 정보 아이디 별 마지막 ACE 순서 맵 (ACE 가 없으면 제외)
+     */
+    Map<Long, Integer> findMaxAceOrderMapByObjectIdentityIdIn(Collection<Long> oidIds);
+
+    /**
+     * SID 의 권한 부여 ACE 마스크에 비트 추가 (mask | bits)
+     * @param oidIds 객체 식별 정보 아이디 목록
+     * @param sidId SID 아이디
+     * @param bits 추가 할 비트
+     * @return 수정 된 ACE 개수
+     */
+    long updateGrantingMaskOrBySidId(Collection<Long> oidIds, long sidId, int bits);
+
+    /**
+     * SID 의 권한 부여 ACE 마스크에서 비트 제거 (mask & ~bits)
+     * @param oidIds 객체 식별 정보 아이디 목록
+     * @param sidId SID 아이디
+     * @param bits 제거 할 비트
+     * @return 수정 된 ACE 개수
+     */
+    long updateGrantingMaskAndNotBySidId(Collection<Long> oidIds, long sidId, int bits);
+
+    /**
+     * 마스크가 0 이 된 SID 의 권한 부여 ACE 삭제
+     * @param oidIds 객체 식별 정보 아이디 목록
+     * @param sidId SID 아이디
+     * @return 삭제 된 ACE 개수
+     */
+    long deleteEmptyGrantingBySidId(Collection<Long> oidIds, long sidId);
 }
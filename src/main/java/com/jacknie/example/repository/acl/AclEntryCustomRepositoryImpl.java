@@ -3,47 +3,137 @@ package com.jacknie.example.repository.acl;
 import org.springframework.data.jpa.repository.support.QuerydslRepositorySupport;
 import org.springframework.util.CollectionUtils;
 
+import java.util.Collection;
 import java.util.Collections;
-import java.util.List;
+import java.util.HashMap;
+import java.util.HashSet;
 import java.util.Map;
 import java.util.Set;
+import java.util.stream.Collectors;
 
+import static com.jacknie.example.repository.InClauseParameterUtils.padToBucketSize;
 import static com.jacknie.example.repository.acl.QAclEntry.aclEntry;
 import static com.querydsl.core.group.GroupBy.groupBy;
-import static com.querydsl.core.group.GroupBy.list;
 
 public class AclEntryCustomRepositoryImpl extends QuerydslRepositorySupport implements AclEntryCustomRepository {
 
-    private QAclSourceAcePart aclSourceAcePart = new QAclSourceAcePart(
-        aclEntry.id,
-        aclEntry.sid.sid,
-        aclEntry.sid.type,
-        aclEntry.mask,
-        aclEntry.granting,
-        aclEntry.auditSuccess,
-        aclEntry.auditFailure
-    );
+    private static final String UPDATE_GRANTING_MASK_OR = """
+        update acl_entry set mask = bitor(mask, :bits)
+        where acl_object_identity in (:oidIds) and sid = :sid and granting = true
+        """;
+
+    private static final String UPDATE_GRANTING_MASK_AND = """
+        update acl_entry set mask = bitand(mask, :bits)
+        where acl_object_identity in (:oidIds) and sid = :sid and granting = true and bitand(mask, :bits) <> mask
+        """;
 
     public AclEntryCustomRepositoryImpl() {
         super(AclEntry.class);
     }
 
     @Override
-    public Map<Long, List<AclSourceAcePart>> findAclSourceAcePartsMap(Set<Long> oidIds) {
+    public Map<Long, AclEntry> findMapByObjectIdentity(AclObjectIdentity aclOid) {
+        return from(aclEntry)
+            .where(aclEntry.objectIdentity.eq(aclOid))
+            .transform(groupBy(aclEntry.id).as(aclEntry));
+    }
+
+    @Override
+    public long deleteAllByObjectIdentityIdIn(Collection<Long> oidIds) {
+        if (CollectionUtils.isEmpty(oidIds)) {
+            return 0;
+        } else {
+            return delete(aclEntry)
+                .where(aclEntry.objectIdentity.id.in(padToBucketSize(oidIds)))
+                .execute();
+        }
+    }
+
+    @Override
+    public Map<Long, Integer> findGrantingMaskMapBySidId(Collection<Long> oidIds, long sidId) {
+        if (CollectionUtils.isEmpty(oidIds)) {
+            return Collections.emptyMap();
+        }
+        Map<Long, Integer> maskMap = new HashMap<>();
+        from(aclEntry)
+            .select(aclEntry.objectIdentity.id, aclEntry.mask)
+            .where(
+                aclEntry.objectIdentity.id.in(padToBucketSize(oidIds)),
+                aclEntry.sid.id.eq(sidId),
+                aclEntry.granting.isTrue()
+            )
+            .fetch()
+            .forEach(tuple -> maskMap.merge(tuple.get(aclEntry.objectIdentity.id), tuple.get(aclEntry.mask), (a, b) -> a | b));
+        return maskMap;
+    }
+
+    @Override
+    public Set<Long> findDenyingObjectIdentityIdsBySidId(Collection<Long> oidIds, long sidId, int mask) {
+        if (CollectionUtils.isEmpty(oidIds)) {
+            return Collections.emptySet();
+        } else {
+            return new HashSet<>(from(aclEntry)
+                .select(aclEntry.objectIdentity.id)
+                .where(
+                    aclEntry.objectIdentity.id.in(padToBucketSize(oidIds)),
+                    aclEntry.sid.id.eq(sidId),
+                    aclEntry.granting.isFalse(),
+                    aclEntry.mask.eq(mask)
+                )
+                .fetch());
+        }
+    }
+
+    @Override
+    public Map<Long, Integer> findMaxAceOrderMapByObjectIdentityIdIn(Collection<Long> oidIds) {
         if (CollectionUtils.isEmpty(oidIds)) {
             return Collections.emptyMap();
         } else {
             return from(aclEntry)
-                .leftJoin(aclEntry.sid)
-                .where(aclEntry.objectIdentity.id.in(oidIds))
-                .transform(groupBy(aclEntry.objectIdentity.id).as(list(aclSourceAcePart)));
+                .select(aclEntry.objectIdentity.id, aclEntry.aceOrder.max())
+                .where(aclEntry.objectIdentity.id.in(padToBucketSize(oidIds)))
+                .groupBy(aclEntry.objectIdentity.id)
+                .fetch()
+                .stream()
+                .collect(Collectors.toMap(tuple -> tuple.get(aclEntry.objectIdentity.id), tuple -> tuple.get(aclEntry.aceOrder.max())));
         }
     }
 
     @Override
-    public Map<Long, AclEntry> findMapByObjectIdentity(AclObjectIdentity aclOid) {
-        return from(aclEntry)
-            .where(aclEntry.objectIdentity.eq(aclOid))
-            .transform(groupBy(aclEntry.id).as(aclEntry));
+    public long updateGrantingMaskOrBySidId(Collection<Long> oidIds, long sidId, int bits) {
+        return updateGrantingMask(UPDATE_GRANTING_MASK_OR, oidIds, sidId, bits);
+    }
+
+    @Override
+    public long updateGrantingMaskAndNotBySidId(Collection<Long> oidIds, long sidId, int bits) {
+        return updateGrantingMask(UPDATE_GRANTING_MASK_AND, oidIds, sidId, ~bits);
+    }
+
+    @Override
+    public long deleteEmptyGrantingBySidId(Collection<Long> oidIds, long sidId) {
+        if (CollectionUtils.isEmpty(oidIds)) {
+            return 0;
+        } else {
+            return delete(aclEntry)
+                .where(
+                    aclEntry.objectIdentity.id.in(padToBucketSize(oidIds)),
+                    aclEntry.sid.id.eq(sidId),
+                    aclEntry.granting.isTrue(),
+                    aclEntry.mask.eq(0)
+                )
+                .execute();
+        }
+    }
+
+    private long updateGrantingMask(String sql, Collection<Long> oidIds, long sidId, int bits) {
+        if (CollectionUtils.isEmpty(oidIds)) {
+            return 0;
+        } else {
+            return getEntityManager().createNativeQuery(sql)
+                .setParameter("oidIds", padToBucketSize(oidIds))
+                .setParameter("sid", sidId)
+                .setParameter("bits", bits)
+                .executeUpdate();
+        }
     }
 }
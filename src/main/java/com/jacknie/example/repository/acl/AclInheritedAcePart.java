@@ -0,0 +1,33 @@
+package com.jacknie.example.repository.acl;
+
+import com.jacknie.example.custom.SidType;
+import lombok.Data;
+
+@Data
+public class AclInheritedAcePart {
+
+    /**
+     * ACL 깊이 (요청 된 ACL 은 0, 부모로 올라갈 때마다 1 증가)
+     */
+    private final int depth;
+
+    /**
+     * 보안 식별 정보
+     */
+    private final String sid;
+
+    /**
+     * 보안 식별 정보 타입
+     */
+    private final SidType sidType;
+
+    /**
+     * 권한 마스크
+     */
+    private final int mask;
+
+    /**
+     * 권한 부여 여부
+     */
+    private final boolean granting;
+}
@@ -13,7 +13,15 @@ import java.util.Objects;
 @AllArgsConstructor
 @Builder
 @Entity
-@Table(uniqueConstraints = @UniqueConstraint(columnNames = { "objectIdClass", "objectIdIdentity" }))
+@Table(
+    uniqueConstraints = @UniqueConstraint(columnNames = { "objectIdClass", "objectIdIdentity" }),
+    indexes = {
+        @Index(name = "acl_object_identity_class_id_idx", columnList = "objectIdClass, id"),
+        @Index(name = "acl_object_identity_class_number_idx", columnList = "objectIdClass, objectIdNumber"),
+        @Index(name = "acl_object_identity_parent_idx", columnList = "parentObject"),
+        @Index(name = "acl_object_identity_owner_idx", columnList = "ownerSid")
+    }
+)
 public class AclObjectIdentity {
 
     @Id
@@ -23,6 +31,9 @@ public class AclObjectIdentity {
     @Column(nullable = false)
     private String objectIdIdentity;
 
+    @Column
+    private Long objectIdNumber;
+
     @Column(nullable = false)
     private Boolean entriesInheriting;
 
@@ -0,0 +1,56 @@
+package com.jacknie.example.repository.acl;
+
+import lombok.*;
+import org.hibernate.Hibernate;
+
+import javax.persistence.*;
+import java.util.Objects;
+
+@Getter
+@Setter
+@ToString
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+@Entity
+@Table(
+    uniqueConstraints = @UniqueConstraint(columnNames = { "ancestor", "descendant" }),
+    indexes = @Index(name = "acl_object_identity_closure_descendant_idx", columnList = "descendant, depth")
+)
+public class AclObjectIdentityClosure {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    /**
+     * 조상 객체 식별 정보 아이디 (자기 자신 포함)
+     */
+    @Column(nullable = false)
+    private Long ancestor;
+
+    /**
+     * 자손 객체 식별 정보 아이디
+     */
+    @Column(nullable = false)
+    private Long descendant;
+
+    /**
+     * 조상에서 자손 까지의 깊이 (자기 자신은 0)
+     */
+    @Column(nullable = false)
+    private Integer depth;
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (o == null || Hibernate.getClass(this) != Hibernate.getClass(o)) return false;
+        AclObjectIdentityClosure that = (AclObjectIdentityClosure) o;
+        return Objects.equals(id, that.id);
+    }
+
+    @Override
+    public int hashCode() {
+        return 0;
+    }
+}
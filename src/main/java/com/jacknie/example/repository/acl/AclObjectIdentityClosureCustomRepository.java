@@ -0,0 +1,43 @@
+package com.jacknie.example.repository.acl;
+
+import org.springframework.lang.Nullable;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+
+public interface AclObjectIdentityClosureCustomRepository {
+
+    /**
+     * 새 객체 식별 정보들의 closure 저장 (자기 자신과 부모의 모든 조상, JDBC 배치 실행)
+     * @param parentIdsById 객체 식별 정보 아이디 별 부모 아이디 맵 (부모가 먼저 오는 순서, 부모가 없으면 null)
+     */
+    void insertAll(Map<Long, Long> parentIdsById);
+
+    /**
+     * 객체 식별 정보 하위 트리를 새 부모 아래로 이동 (하위 트리 밖의 조상 closure 를 교체)
+     * @param id 이동 할 객체 식별 정보 아이디
+     * @param parentId 새 부모 아이디 (null 이면 최상위로 이동)
+     */
+    void moveSubtree(long id, @Nullable Long parentId);
+
+    /**
+     * closure 가 없는 객체 식별 정보들의 closure 저장 (closure 테이블을 사용 하기 전에 저장 된 객체 식별 정보 보정, 계층 깊이 만큼 쿼리 실행)
+     * @return 저장 된 closure 개수
+     */
+    long insertMissing();
+
+    /**
+     * 자손 객체 식별 정보 아이디 조회 (인덱스 범위 조회 1회 실행)
+     * @param id 객체 식별 정보 아이디
+     * @return 자신을 포함한 자손 객체 식별 정보 아이디 목록 (깊이 순서)
+     */
+    List<Long> findDescendantIdsByAncestor(long id);
+
+    /**
+     * 객체 식별 정보들이 조상이나 자손인 closure 일괄 삭제
+     * @param ids 객체 식별 정보 아이디 목록
+     * @return 삭제 된 closure 개수
+     */
+    long deleteAllByIdIn(Collection<Long> ids);
+}
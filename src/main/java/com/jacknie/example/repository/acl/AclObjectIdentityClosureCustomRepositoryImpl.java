@@ -0,0 +1,146 @@
+package com.jacknie.example.repository.acl;
+
+import org.hibernate.Session;
+import org.springframework.data.jpa.repository.support.QuerydslRepositorySupport;
+import org.springframework.lang.Nullable;
+import org.springframework.util.CollectionUtils;
+
+import java.sql.PreparedStatement;
+import java.sql.Types;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+
+import static com.jacknie.example.repository.InClauseParameterUtils.padToBucketSize;
+import static com.jacknie.example.repository.acl.QAclObjectIdentityClosure.aclObjectIdentityClosure;
+
+public class AclObjectIdentityClosureCustomRepositoryImpl extends QuerydslRepositorySupport implements AclObjectIdentityClosureCustomRepository {
+
+    /**
+     * 새 객체 식별 정보의 자기 자신 closure 와 부모의 조상 closure 를 복사 하여 저장 하는 쿼리
+     */
+    private static final String INSERT_CLOSURES = """
+        insert into acl_object_identity_closure (ancestor, descendant, depth)
+        select cast(? as bigint), cast(? as bigint), 0
+        union all
+        select cl.ancestor, cast(? as bigint), cl.depth + 1
+        from acl_object_identity_closure cl
+        where cl.descendant = ?
+        """;
+
+    /**
+     * 하위 트리와 하위 트리 밖의 조상 사이 closure 를 삭제 하는 쿼리
+     */
+    private static final String DELETE_OUTER_CLOSURES = """
+        delete from acl_object_identity_closure
+        where descendant in (select s.descendant from acl_object_identity_closure s where s.ancestor = :id)
+        and ancestor not in (select s.descendant from acl_object_identity_closure s where s.ancestor = :id)
+        """;
+
+    /**
+     * 새 부모의 조상들과 하위 트리 사이 closure 를 저장 하는 쿼리
+     */
+    private static final String INSERT_OUTER_CLOSURES = """
+        insert into acl_object_identity_closure (ancestor, descendant, depth)
+        select a.ancestor, s.descendant, a.depth + s.depth + 1
+        from acl_object_identity_closure a
+        cross join acl_object_identity_closure s
+        where a.descendant = :parentId and s.ancestor = :id
+        """;
+
+    /**
+     * 자기 자신 closure 가 없는 객체 식별 정보의 자기 자신 closure 를 저장 하는 쿼리
+     */
+    private static final String INSERT_MISSING_SELF_CLOSURES = """
+        insert into acl_object_identity_closure (ancestor, descendant, depth)
+        select oi.id, oi.id, 0
+        from acl_object_identity oi
+        where not exists (select 1 from acl_object_identity_closure x where x.ancestor = oi.id and x.descendant = oi.id)
+        """;
+
+    /**
+     * 부모의 조상 closure 중 자식에게 없는 closure 를 한 단계 씩 저장 하는 쿼리
+     */
+    private static final String INSERT_MISSING_PARENT_CLOSURES = """
+        insert into acl_object_identity_closure (ancestor, descendant, depth)
+        select cl.ancestor, oi.id, cl.depth + 1
+        from acl_object_identity oi
+        join acl_object_identity_closure cl on cl.descendant = oi.parent_object
+        where not exists (select 1 from acl_object_identity_closure x where x.ancestor = cl.ancestor and x.descendant = oi.id)
+        """;
+
+    public AclObjectIdentityClosureCustomRepositoryImpl() {
+        super(AclObjectIdentityClosure.class);
+    }
+
+    @Override
+    public void insertAll(Map<Long, Long> parentIdsById) {
+        if (CollectionUtils.isEmpty(parentIdsById)) {
+            return;
+        }
+        getEntityManager().flush();
+        getEntityManager().unwrap(Session.class).doWork(connection -> {
+            try (PreparedStatement statement = connection.prepareStatement(INSERT_CLOSURES)) {
+                for (Map.Entry<Long, Long> entry : parentIdsById.entrySet()) {
+                    statement.setLong(1, entry.getKey());
+                    statement.setLong(2, entry.getKey());
+                    statement.setLong(3, entry.getKey());
+                    if (entry.getValue() == null) {
+                        statement.setNull(4, Types.BIGINT);
+                    } else {
+                        statement.setLong(4, entry.getValue());
+                    }
+                    statement.addBatch();
+                }
+                statement.executeBatch();
+            }
+        });
+    }
+
+    @Override
+    public void moveSubtree(long id, @Nullable Long parentId) {
+        getEntityManager().flush();
+        getEntityManager().createNativeQuery(DELETE_OUTER_CLOSURES)
+            .setParameter("id", id)
+            .executeUpdate();
+        if (parentId != null) {
+            getEntityManager().createNativeQuery(INSERT_OUTER_CLOSURES)
+                .setParameter("parentId", parentId)
+                .setParameter("id", id)
+                .executeUpdate();
+        }
+    }
+
+    @Override
+    public long insertMissing() {
+        getEntityManager().flush();
+        long inserted = getEntityManager().createNativeQuery(INSERT_MISSING_SELF_CLOSURES).executeUpdate();
+        // Every round copies the ancestors one level further down, until no path is missing
+        int insertedInRound;
+        do {
+            insertedInRound = getEntityManager().createNativeQuery(INSERT_MISSING_PARENT_CLOSURES).executeUpdate();
+            inserted += insertedInRound;
+        } while (insertedInRound > 0);
+        return inserted;
+    }
+
+    @Override
+    public List<Long> findDescendantIdsByAncestor(long id) {
+        return from(aclObjectIdentityClosure).select(aclObjectIdentityClosure.descendant)
+            .where(aclObjectIdentityClosure.ancestor.eq(id))
+            .orderBy(aclObjectIdentityClosure.depth.asc())
+            .fetch();
+    }
+
+    @Override
+    public long deleteAllByIdIn(Collection<Long> ids) {
+        if (CollectionUtils.isEmpty(ids)) {
+            return 0;
+        } else {
+            List<Long> paddedIds = padToBucketSize(ids);
+            return delete(aclObjectIdentityClosure)
+                .where(aclObjectIdentityClosure.descendant.in(paddedIds).or(aclObjectIdentityClosure.ancestor.in(paddedIds)))
+                .execute();
+        }
+    }
+}
@@ -0,0 +1,6 @@
+package com.jacknie.example.repository.acl;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+
+public interface AclObjectIdentityClosureRepository extends JpaRepository<AclObjectIdentityClosure, Long>, AclObjectIdentityClosureCustomRepository {
+}
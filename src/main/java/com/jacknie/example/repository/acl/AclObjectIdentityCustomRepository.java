@@ -1,7 +1,10 @@
 package com.jacknie.example.repository.acl;
 
+import com.jacknie.example.custom.SidType;
+import org.springframework.data.util.Pair;
 import org.springframework.security.acls.model.ObjectIdentity;
 
+import java.util.Collection;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
@@ -17,18 +20,60 @@ public interface AclObjectIdentityCustomRepository {
     boolean existsByObjectIdentity(ObjectIdentity oid);
 
     /**
-     * ACL 소스 데이터 기본 정보 목록 조회
+     * ACL 소스 데이터 목록 조회 (기본 정보와 ACE 정보를 쿼리 1회로 조회)
      * @param oids 객체 식별 정보 목록
-     * @return 기본 정보 목록
+     * @return ACE 정보를 포함한 기본 정보 목록
      */
-    List<AclSourceBasePart> findAclSourceBasePartsByObjectIdentityIn(Set<ObjectIdentity> oids);
+    List<AclSourceBasePart> findAclSourcePartsByObjectIdentityIn(Set<ObjectIdentity> oids);
 
     /**
-     * ACL 소스 데이터 기본 정보 목록 조회
+     * ACL 소스 데이터 목록 조회 (기본 정보와 ACE 정보를 쿼리 1회로 조회)
      * @param ids 객체 식별 정보 아이디 목록
-     * @return 기본 정보 목록
+     * @return ACE 정보를 포함한 기본 정보 목록
      */
-    List<AclSourceBasePart> findAclSourceBasePartsByObjectIdentityIdIn(Set<Long> ids);
+    List<AclSourceBasePart> findAclSourcePartsByObjectIdentityIdIn(Set<Long> ids);
+
+    /**
+     * ACL 소스 데이터 목록 조회 (조상 객체 식별 정보 포함, 재귀 쿼리 1회 실행)
+     * @param oids 객체 식별 정보 목록
+     * @return ACE 정보를 포함한 기본 정보 목록
+     */
+    List<AclSourceBasePart> findAclSourcePartsWithAncestorsByObjectIdentityIn(Set<ObjectIdentity> oids);
+
+    /**
+     * ACL 소스 데이터 목록 조회 (조상 객체 식별 정보 포함, closure 테이블로 쿼리 1회 실행)
+     * @param oids 객체 식별 정보 목록
+     * @return ACE 정보를 포함한 기본 정보 목록
+     */
+    List<AclSourceBasePart> findAclSourcePartsWithAncestorsByClosure(Set<ObjectIdentity> oids);
+
+    /**
+     * 객체 식별 정보와 상속 되는 조상 ACL 들의 ACE 중 권한 검사에 일치 하는 ACE 목록 조회 (재귀 쿼리 1회 실행)
+     * @param oid 객체 식별 정보
+     * @param sids 보안 식별 정보 목록 (타입 구분 없음)
+     * @param mask 검사 할 권한 마스크
+     * @return 일치 하는 ACE 목록 (ACL 깊이, ACE 순서로 정렬)
+     */
+    List<AclMatchedAcePart> findMatchedAcePartsWithAncestorsByObjectIdentity(ObjectIdentity oid, Collection<String> sids, int mask);
+
+    /**
+     * 객체 식별 정보와 상속 되는 조상 ACL 들의 모든 ACE 목록 조회 (재귀 쿼리 1회 실행)
+     * @param oid 객체 식별 정보
+     * @return ACE 목록 (ACL 깊이, ACE 순서로 정렬)
+     */
+    List<AclInheritedAcePart> findAcePartsWithAncestorsByObjectIdentity(ObjectIdentity oid);
+
+    /**
+     * 보안 식별 정보 목록에 권한 부여 ACE 가 있는 ACL 과 그 ACL 을 상속 하는 자손 중 클래스의 객체 식별 정보를 관리 아이디 순서로 조회 하여 권한 부여 여부 판단 (재귀 쿼리 2회 실행).
+     * 권한 부여 ACE 가 없는 객체는 후보가 되지 않으며, 후보는 가장 가까운 ACL 에서 일치 하는 ACE 중 SID 순서, ACE 순서로 첫번째 ACE 가 결과를 결정 한다.
+     * @param type 클래스 이름
+     * @param sids (보안 식별 정보, 타입) 쌍 목록 (순서가 우선 순위)
+     * @param mask 검사 할 권한 마스크
+     * @param afterId 이 관리 아이디 다음 부터 조회
+     * @param limit 조회 할 객체 식별 정보 개수
+     * @return 권한 부여 여부를 포함한 객체 식별 정보 목록 (관리 아이디 순서)
+     */
+    List<AclPermittedObjectPart> findPermittedObjectPartsByType(String type, List<Pair<String, SidType>> sids, int mask, long afterId, int limit);
 
     /**
      * 객체 식별 정보 조회
@@ -51,10 +96,71 @@ public interface AclObjectIdentityCustomRepository {
      */
     Optional<Long> findIdByObjectIdentity(ObjectIdentity oid);
 
+    /**
+     * 객체 식별 정보 아이디 맵 조회 (저장 되지 않은 객체 식별 정보는 제외)
+     * @param oids 객체 식별 정보 목록
+     * @return (클래스 이름, 객체 식별 정보 문자열) 쌍 별 아이디 맵
+     */
+    Map<Pair<String, String>, Long> findIdMapByObjectIdentityIn(Set<ObjectIdentity> oids);
+
+    /**
+     * 객체 식별 정보 JDBC 배치 저장 (아이디는 채워지지 않으므로 필요 하면 다시 조회)
+     * @param entities 객체 식별 정보 entity 목록 (연관 entity 는 아이디만 사용)
+     */
+    void insertAll(List<AclObjectIdentity> entities);
+
+    /**
+     * 같은 객체 식별 정보가 없을 때만 저장 (upsert 1회 실행, 동시에 저장 된 경우에도 예외 없이 처리)
+     * @param entity 객체 식별 정보 entity (연관 entity 는 아이디만 사용)
+     * @return 저장 된 객체 식별 정보 아이디 (이미 있으면 empty)
+     */
+    Optional<Long> insertIfAbsent(AclObjectIdentity entity);
+
+    /**
+     * 부모 객체 식별 정보 JDBC 배치 수정
+     * @param parentIdsById 객체 식별 정보 아이디 별 부모 객체 식별 정보 아이디 맵
+     */
+    void updateParentObjectIdAll(Map<Long, Long> parentIdsById);
+
+    /**
+     * 숫자 컬럼이 채워지지 않은 이전 객체 식별 정보의 숫자 컬럼 채우기 (관리 아이디 순서로 나눠서 조회 하고 JDBC 배치 수정)
+     * @param batchSize 한번에 조회 할 객체 식별 정보 개수
+     * @return 수정 된 객체 식별 정보 개수
+     */
+    long updateMissingObjectIdNumbers(int batchSize);
+
     /**
      * 객체 식별 정보 소스 데이터 자식 목록 조회
      * @param oid 부모 객체 식별 정보
      * @return 객체 식별 정보 소스 데이터 자식 목록
      */
     List<ObjectIdentitySource> findChildrenByObjectIdentity(ObjectIdentity oid);
+
+    /**
+     * 객체 식별 정보와 모든 자손 객체 식별 정보 아이디 조회 (재귀 쿼리 1회 실행)
+     * @param id 객체 식별 정보 아이디
+     * @return 자신을 포함한 자손 객체 식별 정보 아이디 목록
+     */
+    List<Long> findDescendantIdsById(long id);
+
+    /**
+     * 객체 식별 정보들의 부모 객체 식별 정보 아이디 조회
+     * @param ids 객체 식별 정보 아이디 목록
+     * @return 중복 없는 부모 객체 식별 정보 아이디 목록
+     */
+    List<Long> findParentIdsByIdIn(Collection<Long> ids);
+
+    /**
+     * 객체 식별 정보 부모 참조 일괄 해제
+     * @param ids 객체 식별 정보 아이디 목록
+     * @return 수정 된 객체 식별 정보 개수
+     */
+    long updateParentToNullByIdIn(Collection<Long> ids);
+
+    /**
+     * 객체 식별 정보 일괄 삭제
+     * @param ids 객체 식별 정보 아이디 목록
+     * @return 삭제 된 객체 식별 정보 개수
+     */
+    long deleteAllByIdIn(Collection<Long> ids);
 }
@@ -1,35 +1,262 @@
 package com.jacknie.example.repository.acl;
 
+import com.jacknie.example.custom.SidType;
+import com.querydsl.core.Tuple;
+import com.querydsl.core.types.Expression;
+import com.querydsl.core.types.Predicate;
 import com.querydsl.core.types.dsl.BooleanExpression;
-import com.querydsl.jpa.JPQLQuery;
+import com.querydsl.jpa.JPAExpressions;
+import org.hibernate.Session;
 import org.springframework.data.jpa.repository.support.QuerydslRepositorySupport;
+import org.springframework.data.util.Pair;
+import org.springframework.lang.Nullable;
 import org.springframework.security.acls.model.ObjectIdentity;
+import org.springframework.util.Assert;
 import org.springframework.util.CollectionUtils;
 
+import javax.persistence.Query;
+import java.io.Serializable;
+import java.sql.*;
 import java.util.*;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
 
+import static com.jacknie.example.repository.InClauseParameterUtils.padToBucketSize;
+import static com.jacknie.example.repository.acl.ObjectIdNumberUtils.toObjectIdNumber;
+import static com.jacknie.example.repository.acl.QAclClass.aclClass;
+import static com.jacknie.example.repository.acl.QAclEntry.aclEntry;
 import static com.jacknie.example.repository.acl.QAclObjectIdentity.aclObjectIdentity;
 import static com.querydsl.core.group.GroupBy.groupBy;
 
 public class AclObjectIdentityCustomRepositoryImpl extends QuerydslRepositorySupport implements AclObjectIdentityCustomRepository {
 
-    private final QAclSourceBasePart aclSourceBasePart = new QAclSourceBasePart(
+    /**
+     * 요청 된 객체 식별 정보와 모든 조상 객체 식별 정보를 ACE 정보와 함께 한번에 조회 하는 재귀 쿼리
+     */
+    private static final String SELECT_SOURCE_PARTS_WITH_ANCESTORS = """
+        with recursive acl_tree(id, parent_object) as (
+            select oi.id, oi.parent_object
+            from acl_object_identity oi
+            where %s
+            union all
+            select p.id, p.parent_object
+            from acl_object_identity p
+            join acl_tree t on p.id = t.parent_object
+        )
+        select oi.id, oi.parent_object, oi.entries_inheriting, oi.object_id_identity, oi.object_id_number, c.class_id_type, c.class,
+            s.type as owner_sid_type, s.sid as owner_sid, e.id as ace_id, es.sid as ace_sid, es.type as ace_sid_type,
+            e.mask, e.granting, e.audit_success, e.audit_failure
+        from acl_object_identity oi
+        left join acl_class c on c.id = oi.object_id_class
+        left join acl_sid s on s.id = oi.owner_sid
+        left join acl_entry e on e.acl_object_identity = oi.id
+        left join acl_sid es on es.id = e.sid
+        where oi.id in (select distinct id from acl_tree)
+        order by oi.id, e.ace_order
+        """;
+
+    /**
+     * 요청 된 객체 식별 정보와 모든 조상 객체 식별 정보를 closure 테이블로 찾아 ACE 정보와 함께 한번에 조회 하는 쿼리
+     */
+    private static final String SELECT_SOURCE_PARTS_WITH_ANCESTORS_BY_CLOSURE = """
+        select a.id, a.parent_object, a.entries_inheriting, a.object_id_identity, a.object_id_number, c.class_id_type, c.class,
+            s.type as owner_sid_type, s.sid as owner_sid, e.id as ace_id, es.sid as ace_sid, es.type as ace_sid_type,
+            e.mask, e.granting, e.audit_success, e.audit_failure
+        from acl_object_identity a
+        left join acl_class c on c.id = a.object_id_class
+        left join acl_sid s on s.id = a.owner_sid
+        left join acl_entry e on e.acl_object_identity = a.id
+        left join acl_sid es on es.id = e.sid
+        where a.id in (
+            select cl.ancestor
+            from acl_object_identity_closure cl
+            join acl_object_identity oi on oi.id = cl.descendant
+            where %s
+        )
+        order by a.id, e.ace_order
+        """;
+
+    /**
+     * 객체 식별 정보와 모든 자손 객체 식별 정보 아이디를 조회 하는 재귀 쿼리
+     */
+    private static final String SELECT_DESCENDANT_IDS = """
+        with recursive acl_tree(id) as (
+            select oi.id
+            from acl_object_identity oi
+            where oi.id = :id
+            union all
+            select c.id
+            from acl_object_identity c
+            join acl_tree t on c.parent_object = t.id
+        )
+        select id from acl_tree
+        """;
+
+    /**
+     * 객체 식별 정보와 상속 되는 조상 ACL 들에서 보안 식별 정보와 마스크가 일치 하는 ACE 를 조회 하는 재귀 쿼리.
+     * 권한 부여 ACE 는 비트 하나라도 겹치면 (mask & p != 0), 권한 거부 ACE 는 마스크가 같으면 일치 한다.
+     */
+    private static final String SELECT_MATCHED_ACE_PARTS_WITH_ANCESTORS = """
+        with recursive acl_chain(id, parent_object, entries_inheriting, depth) as (
+            select oi.id, oi.parent_object, oi.entries_inheriting, 0
+            from acl_object_identity oi
+            join acl_class c on c.id = oi.object_id_class
+            where c.class = :type and %s
+            union all
+            select p.id, p.parent_object, p.entries_inheriting, t.depth + 1
+            from acl_object_identity p
+            join acl_chain t on p.id = t.parent_object
+            where t.entries_inheriting
+        )
+        select t.depth, s.sid, s.type, e.granting
+        from acl_chain t
+        join acl_entry e on e.acl_object_identity = t.id
+        join acl_sid s on s.id = e.sid
+        where s.sid in (:sids)
+        and ((e.granting and bitand(e.mask, :mask) <> 0) or (not e.granting and e.mask = :mask))
+        order by t.depth, e.ace_order
+        """;
+
+    /**
+     * 객체 식별 정보와 상속 되는 조상 ACL 들의 모든 ACE 를 조회 하는 재귀 쿼리
+     */
+    private static final String SELECT_ACE_PARTS_WITH_ANCESTORS = """
+        with recursive inherited_chain(id, parent_object, entries_inheriting, depth) as (
+            select oi.id, oi.parent_object, oi.entries_inheriting, 0
+            from acl_object_identity oi
+            join acl_class c on c.id = oi.object_id_class
+            where c.class = :type and %s
+            union all
+            select p.id, p.parent_object, p.entries_inheriting, t.depth + 1
+            from acl_object_identity p
+            join inherited_chain t on p.id = t.parent_object
+            where t.entries_inheriting
+        )
+        select t.depth, s.sid, s.type, e.mask, e.granting
+        from inherited_chain t
+        join acl_entry e on e.acl_object_identity = t.id
+        join acl_sid s on s.id = e.sid
+        order by t.depth, e.ace_order
+        """;
+
+    /**
+     * 객체 식별 정보들과 상속 되는 조상 ACL 들에서 보안 식별 정보와 마스크가 일치 하는 ACE 를 조회 하는 재귀 쿼리.
+     * 객체 식별 정보 별로 가장 가까운 ACL, SID 순서, ACE 순서로 정렬 되므로 객체 식별 정보 별 첫번째 행이 결과를 결정 한다.
+     */
+    private static final String SELECT_MATCHED_ACE_DECISIONS = """
+        with recursive permitted_chain(object_id, id, parent_object, entries_inheriting, depth) as (
+            select oi.id, oi.id, oi.parent_object, oi.entries_inheriting, 0
+            from acl_object_identity oi
+            where oi.id in (:ids)
+            union all
+            select t.object_id, p.id, p.parent_object, p.entries_inheriting, t.depth + 1
+            from acl_object_identity p
+            join permitted_chain t on p.id = t.parent_object
+            where t.entries_inheriting
+        )
+        select t.object_id, e.granting
+        from permitted_chain t
+        join acl_entry e on e.acl_object_identity = t.id
+        join acl_sid s on s.id = e.sid
+        join (values %s) q(sid_order, sid, type) on q.sid = s.sid and q.type = s.type
+        where (e.granting and bitand(e.mask, :mask) <> 0) or (not e.granting and e.mask = :mask)
+        order by t.object_id, t.depth, q.sid_order, e.ace_order
+        """;
+
+    /**
+     * 보안 식별 정보 목록에 권한 부여 ACE 가 있는 객체 식별 정보와 그 ACE 를 상속 하는 자손 중 클래스가 같은 후보를 관리 아이디 순서로 조회 하는 재귀 쿼리.
+     * acl_entry 를 보안 식별 정보 인덱스로 찾기 시작 하므로 클래스의 전체 객체 수와 관계 없이 후보 수 만큼만 읽는다.
+     */
+    private static final String SELECT_PERMITTED_CANDIDATES = """
+        with recursive permitted_tree(id) as (
+            select e.acl_object_identity
+            from acl_entry e
+            join acl_sid s on s.id = e.sid
+            join (values %s) q(sid, type) on q.sid = s.sid and q.type = s.type
+            where e.granting and bitand(e.mask, :mask) <> 0
+            union all
+            select c.id
+            from acl_object_identity c
+            join permitted_tree t on c.parent_object = t.id
+            where c.entries_inheriting
+        )
+        select distinct oi.id, oi.object_id_identity, oi.object_id_number, c.class_id_type
+        from permitted_tree t
+        join acl_object_identity oi on oi.id = t.id
+        join acl_class c on c.id = oi.object_id_class
+        where c.class = :type and oi.id > :afterId
+        order by oi.id
+        limit :limit
+        """;
+
+    private static final String INSERT_OBJECT_IDENTITY = """
+        insert into acl_object_identity (object_id_identity, object_id_number, entries_inheriting, parent_object, object_id_class, owner_sid)
+        values (?, ?, ?, ?, ?, ?)
+        """;
+
+    /**
+     * 같은 (클래스, 객체 식별 정보) 행이 없을 때만 저장 하는 upsert 쿼리
+     */
+    private static final String MERGE_OBJECT_IDENTITY = """
+        merge into acl_object_identity oi
+        using (select cast(? as bigint) as object_id_class, cast(? as varchar(255)) as object_id_identity) s
+        on oi.object_id_class = s.object_id_class and oi.object_id_identity = s.object_id_identity
+        when not matched then insert (object_id_identity, object_id_number, entries_inheriting, parent_object, object_id_class, owner_sid)
+        values (s.object_id_identity, ?, ?, ?, s.object_id_class, ?)
+        """;
+
+    /**
+     * 유일 제약 조건 위반 SQL 상태 코드
+     */
+    private static final String UNIQUE_VIOLATION_SQL_STATE = "23505";
+
+    private static final String UPDATE_PARENT_OBJECT = """
+        update acl_object_identity set parent_object = ? where id = ?
+        """;
+
+    private static final String UPDATE_OBJECT_ID_NUMBER = """
+        update acl_object_identity set object_id_number = ? where id = ? and object_id_number is null
+        """;
+
+    private static final QAclClass objectIdClass = new QAclClass("objectIdClass");
+    private static final QAclSid ownerSid = new QAclSid("ownerSid");
+    private static final QAclObjectIdentity parentObject = new QAclObjectIdentity("parentObject");
+    private static final QAclSid entrySid = new QAclSid("entrySid");
+
+    /**
+     * ACL 소스 데이터 조회 컬럼 (기본 정보 컬럼 + ACE 정보 컬럼)
+     */
+    private static final Expression<?>[] aclSourcePartColumns = {
         aclObjectIdentity.id,
         aclObjectIdentity.parentObject.id,
         aclObjectIdentity.entriesInheriting,
         aclObjectIdentity.objectIdIdentity,
-        aclObjectIdentity.objectIdClass.classIdType,
-        aclObjectIdentity.objectIdClass.className,
-        aclObjectIdentity.ownerSid.type,
-        aclObjectIdentity.ownerSid.sid
-    );
+        aclObjectIdentity.objectIdNumber,
+        objectIdClass.classIdType,
+        objectIdClass.className,
+        ownerSid.type,
+        ownerSid.sid,
+        aclEntry.id,
+        entrySid.sid,
+        entrySid.type,
+        aclEntry.mask,
+        aclEntry.granting,
+        aclEntry.auditSuccess,
+        aclEntry.auditFailure
+    };
 
     private final QObjectIdentitySource objectIdentitySource = new QObjectIdentitySource(
         aclObjectIdentity.objectIdIdentity,
+        aclObjectIdentity.objectIdNumber,
         aclObjectIdentity.objectIdClass.className,
         aclObjectIdentity.objectIdClass.classIdType
     );
 
+    /**
+     * 정수 객체 식별 정보를 숫자 컬럼으로 조회 할지 여부 (끄면 모든 객체 식별 정보를 문자열 컬럼으로 조회)
+     */
+    private boolean objectIdNumberLookup = true;
+
     public AclObjectIdentityCustomRepositoryImpl() {
         super(AclObjectIdentity.class);
     }
@@ -39,49 +266,119 @@ public class AclObjectIdentityCustomRepositoryImpl extends QuerydslRepositorySup
         return from(aclObjectIdentity)
                 .leftJoin(aclObjectIdentity.objectIdClass)
                 .where(
-                    aclObjectIdentity.objectIdIdentity.eq(oid.getIdentifier().toString()),
+                    identifierEq(aclObjectIdentity, oid),
                     aclObjectIdentity.objectIdClass.className.eq(oid.getType())
                 )
                 .fetchCount() > 0;
     }
 
     @Override
-    public List<AclSourceBasePart> findAclSourceBasePartsByObjectIdentityIn(Set<ObjectIdentity> oids) {
+    public List<AclSourceBasePart> findAclSourcePartsByObjectIdentityIn(Set<ObjectIdentity> oids) {
         if (CollectionUtils.isEmpty(oids)) {
             return Collections.emptyList();
+        }
+        Map<Long, List<Serializable>> identifiersMap = getIdentifiersMapByClassId(oids);
+        if (identifiersMap.isEmpty()) {
+            return Collections.emptyList();
         } else {
-            return getAclSourceBasePartQuery()
-                .where(
-                    oids.stream()
-                        .map(oid -> aclObjectIdentity.objectIdIdentity.eq(oid.getIdentifier().toString()).and(aclObjectIdentity.objectIdClass.className.eq(oid.getType())))
-                        .reduce(BooleanExpression::or)
-                        .orElseThrow()
-                )
-                .fetch();
+            return toAclSourceParts(getAclSourcePartQuery(
+                identifiersMap.entrySet().stream()
+                    .map(entry -> identifiersIn(entry.getKey(), entry.getValue()))
+                    .reduce(BooleanExpression::or)
+                    .orElseThrow()
+            ));
         }
     }
 
     @Override
-    public List<AclSourceBasePart> findAclSourceBasePartsByObjectIdentityIdIn(Set<Long> ids) {
+    public List<AclSourceBasePart> findAclSourcePartsByObjectIdentityIdIn(Set<Long> ids) {
         if (CollectionUtils.isEmpty(ids)) {
             return Collections.emptyList();
         } else {
-            return getAclSourceBasePartQuery()
-                .where(
-                    ids.stream()
-                        .map(aclObjectIdentity.id::eq)
-                        .reduce(BooleanExpression::or)
-                        .orElseThrow()
-                )
-                .fetch();
+            return toAclSourceParts(getAclSourcePartQuery(aclObjectIdentity.id.in(padToBucketSize(ids))));
+        }
+    }
+
+    @Override
+    public List<AclSourceBasePart> findAclSourcePartsWithAncestorsByObjectIdentityIn(Set<ObjectIdentity> oids) {
+        return findAclSourcePartsByObjectIdentityPredicate(SELECT_SOURCE_PARTS_WITH_ANCESTORS, oids);
+    }
+
+    @Override
+    public List<AclSourceBasePart> findAclSourcePartsWithAncestorsByClosure(Set<ObjectIdentity> oids) {
+        return findAclSourcePartsByObjectIdentityPredicate(SELECT_SOURCE_PARTS_WITH_ANCESTORS_BY_CLOSURE, oids);
+    }
+
+    @Override
+    public List<AclMatchedAcePart> findMatchedAcePartsWithAncestorsByObjectIdentity(ObjectIdentity oid, Collection<String> sids, int mask) {
+        if (CollectionUtils.isEmpty(sids)) {
+            return Collections.emptyList();
+        }
+        @SuppressWarnings("unchecked")
+        List<Object[]> rows = getEntityManager().createNativeQuery(SELECT_MATCHED_ACE_PARTS_WITH_ANCESTORS.formatted(identifierColumnEq(oid)))
+            .setParameter("type", oid.getType())
+            .setParameter("identifier", toIdentifierParameter(oid))
+            .setParameter("sids", padToBucketSize(sids))
+            .setParameter("mask", mask)
+            .getResultList();
+        return rows.stream()
+            .map(row -> new AclMatchedAcePart(((Number) row[0]).intValue(), (String) row[1], toSidType(row[2]), (Boolean) row[3]))
+            .toList();
+    }
+
+    @Override
+    public List<AclInheritedAcePart> findAcePartsWithAncestorsByObjectIdentity(ObjectIdentity oid) {
+        @SuppressWarnings("unchecked")
+        List<Object[]> rows = getEntityManager().createNativeQuery(SELECT_ACE_PARTS_WITH_ANCESTORS.formatted(identifierColumnEq(oid)))
+            .setParameter("type", oid.getType())
+            .setParameter("identifier", toIdentifierParameter(oid))
+            .getResultList();
+        return rows.stream()
+            .map(row -> new AclInheritedAcePart(((Number) row[0]).intValue(), (String) row[1], toSidType(row[2]), ((Number) row[3]).intValue(), (Boolean) row[4]))
+            .toList();
+    }
+
+    @Override
+    public List<AclPermittedObjectPart> findPermittedObjectPartsByType(String type, List<Pair<String, SidType>> sids, int mask, long afterId, int limit) {
+        if (CollectionUtils.isEmpty(sids)) {
+            return Collections.emptyList();
+        }
+        // The candidates start from the granting ACEs of the SIDs, so the cost does not grow with the class size
+        String values = IntStream.range(0, sids.size())
+            .mapToObj(i -> "(cast(:sid" + i + " as varchar(255)), cast(:sidType" + i + " as varchar(255)))")
+            .collect(Collectors.joining(", "));
+        Query query = getEntityManager().createNativeQuery(SELECT_PERMITTED_CANDIDATES.formatted(values))
+            .setParameter("mask", mask)
+            .setParameter("type", type)
+            .setParameter("afterId", afterId)
+            .setParameter("limit", limit);
+        for (int i = 0; i < sids.size(); i++) {
+            query.setParameter("sid" + i, sids.get(i).getFirst());
+            query.setParameter("sidType" + i, sids.get(i).getSecond().name());
         }
+        @SuppressWarnings("unchecked")
+        List<Object[]> candidates = query.getResultList();
+        if (candidates.isEmpty()) {
+            return Collections.emptyList();
+        }
+        // A denying ACE or an earlier SID may still decide, so the candidates are checked as a whole
+        Map<Long, Boolean> decisions = findPermissionDecisions(candidates.stream().map(row -> toLong(row[0])).toList(), sids, mask);
+        return candidates.stream()
+            .map(row -> new AclPermittedObjectPart(
+                toLong(row[0]),
+                (String) row[1],
+                toLong(row[2]),
+                (String) row[3],
+                decisions.getOrDefault(toLong(row[0]), false)
+            ))
+            .toList();
     }
 
     @Override
     public Optional<AclObjectIdentity> findByObjectIdentity(ObjectIdentity oid) {
         return Optional.ofNullable(from(aclObjectIdentity)
             .where(
-                aclObjectIdentity.objectIdIdentity.eq(oid.getIdentifier().toString()),
+                identifierEq(aclObjectIdentity, oid),
                 aclObjectIdentity.objectIdClass.className.eq(oid.getType())
             )
             .fetchOne());
@@ -102,28 +399,458 @@ public class AclObjectIdentityCustomRepositoryImpl extends QuerydslRepositorySup
     public Optional<Long> findIdByObjectIdentity(ObjectIdentity oid) {
         return Optional.ofNullable(from(aclObjectIdentity).select(aclObjectIdentity.id)
             .where(
-                aclObjectIdentity.objectIdIdentity.eq(oid.getIdentifier().toString()),
+                identifierEq(aclObjectIdentity, oid),
                 aclObjectIdentity.objectIdClass.className.eq(oid.getType())
             )
             .fetchOne());
     }
 
+    @Override
+    public Map<Pair<String, String>, Long> findIdMapByObjectIdentityIn(Set<ObjectIdentity> oids) {
+        if (CollectionUtils.isEmpty(oids)) {
+            return Collections.emptyMap();
+        }
+        Map<Long, List<Serializable>> identifiersMap = getIdentifiersMapByClassId(oids);
+        if (identifiersMap.isEmpty()) {
+            return Collections.emptyMap();
+        } else {
+            return from(aclObjectIdentity)
+                .select(aclObjectIdentity.objectIdClass.className, aclObjectIdentity.objectIdIdentity, aclObjectIdentity.id)
+                .where(identifiersMap.entrySet().stream()
+                    .map(entry -> identifiersIn(entry.getKey(), entry.getValue()))
+                    .reduce(BooleanExpression::or)
+                    .orElseThrow())
+                .fetch()
+                .stream()
+                .collect(Collectors.toMap(
+                    tuple -> Pair.of(tuple.get(aclObjectIdentity.objectIdClass.className), tuple.get(aclObjectIdentity.objectIdIdentity)),
+                    tuple -> tuple.get(aclObjectIdentity.id)
+                ));
+        }
+    }
+
+    @Override
+    public void insertAll(List<AclObjectIdentity> entities) {
+        if (CollectionUtils.isEmpty(entities)) {
+            return;
+        }
+        getEntityManager().flush();
+        getEntityManager().unwrap(Session.class).doWork(connection -> {
+            try (PreparedStatement statement = connection.prepareStatement(INSERT_OBJECT_IDENTITY)) {
+                for (AclObjectIdentity entity : entities) {
+                    statement.setString(1, entity.getObjectIdIdentity());
+                    setNullableLong(statement, 2, entity.getObjectIdNumber());
+                    statement.setBoolean(3, entity.getEntriesInheriting());
+                    setNullableLong(statement, 4, entity.getParentObject() == null ? null : entity.getParentObject().getId());
+                    statement.setLong(5, entity.getObjectIdClass().getId());
+                    statement.setLong(6, entity.getOwnerSid().getId());
+                    statement.addBatch();
+                }
+                statement.executeBatch();
+            }
+        });
+    }
+
+    @Override
+    public Optional<Long> insertIfAbsent(AclObjectIdentity entity) {
+        getEntityManager().flush();
+        return getEntityManager().unwrap(Session.class).doReturningWork(connection -> {
+            // A concurrent creator may still win on the unique constraint; roll back to the
+            // savepoint so that the surrounding transaction stays usable
+            Savepoint savepoint = connection.setSavepoint();
+            try (PreparedStatement statement = connection.prepareStatement(MERGE_OBJECT_IDENTITY, Statement.RETURN_GENERATED_KEYS)) {
+                statement.setLong(1, entity.getObjectIdClass().getId());
+                statement.setString(2, entity.getObjectIdIdentity());
+                setNullableLong(statement, 3, entity.getObjectIdNumber());
+                statement.setBoolean(4, entity.getEntriesInheriting());
+                setNullableLong(statement, 5, entity.getParentObject() == null ? null : entity.getParentObject().getId());
+                statement.setLong(6, entity.getOwnerSid().getId());
+                if (statement.executeUpdate() == 0) {
+                    return Optional.<Long>empty();
+                }
+                try (ResultSet generatedKeys = statement.getGeneratedKeys()) {
+                    generatedKeys.next();
+                    return Optional.of(generatedKeys.getLong(1));
+                }
+            } catch (SQLException e) {
+                if (!UNIQUE_VIOLATION_SQL_STATE.equals(e.getSQLState())) {
+                    throw e;
+                }
+                connection.rollback(savepoint);
+                return Optional.<Long>empty();
+            } finally {
+                connection.releaseSavepoint(savepoint);
+            }
+        });
+    }
+
+    @Override
+    public void updateParentObjectIdAll(Map<Long, Long> parentIdsById) {
+        if (CollectionUtils.isEmpty(parentIdsById)) {
+            return;
+        }
+        getEntityManager().flush();
+        getEntityManager().unwrap(Session.class).doWork(connection -> {
+            try (PreparedStatement statement = connection.prepareStatement(UPDATE_PARENT_OBJECT)) {
+                for (Map.Entry<Long, Long> entry : parentIdsById.entrySet()) {
+                    statement.setLong(1, entry.getValue());
+                    statement.setLong(2, entry.getKey());
+                    statement.addBatch();
+                }
+                statement.executeBatch();
+            }
+        });
+    }
+
+    @Override
+    public long updateMissingObjectIdNumbers(int batchSize) {
+        Assert.isTrue(batchSize > 0, "batchSize must be greater than 0");
+        long updated = 0;
+        long afterId = 0;
+        List<Tuple> rows;
+        do {
+            rows = from(aclObjectIdentity)
+                .select(aclObjectIdentity.id, aclObjectIdentity.objectIdIdentity)
+                .where(aclObjectIdentity.objectIdNumber.isNull(), aclObjectIdentity.id.gt(afterId))
+                .orderBy(aclObjectIdentity.id.asc())
+                .limit(batchSize)
+                .fetch();
+            if (rows.isEmpty()) {
+                break;
+            }
+            afterId = rows.get(rows.size() - 1).get(aclObjectIdentity.id);
+            // Non-numeric identifiers are left null, just as they are stored
+            Map<Long, Long> numbersById = new LinkedHashMap<>();
+            for (Tuple row : rows) {
+                Long number = toObjectIdNumber(row.get(aclObjectIdentity.objectIdIdentity));
+                if (number != null) {
+                    numbersById.put(row.get(aclObjectIdentity.id), number);
+                }
+            }
+            updated += updateObjectIdNumberAll(numbersById);
+        } while (rows.size() == batchSize);
+        return updated;
+    }
+
     @Override
     public List<ObjectIdentitySource> findChildrenByObjectIdentity(ObjectIdentity oid) {
+        // Look the parent up first, so that the children are read through the parent index
         return from(aclObjectIdentity).select(objectIdentitySource)
-            .leftJoin(aclObjectIdentity.parentObject)
             .leftJoin(aclObjectIdentity.objectIdClass)
-            .where(
-                aclObjectIdentity.parentObject.objectIdIdentity.eq(oid.getIdentifier().toString()),
-                aclObjectIdentity.parentObject.objectIdClass.className.eq(oid.getType())
-            )
+            .where(aclObjectIdentity.parentObject.id.in(JPAExpressions.select(parentObject.id)
+                .from(parentObject)
+                .where(
+                    identifierEq(parentObject, oid),
+                    parentObject.objectIdClass.className.eq(oid.getType())
+                )
+            ))
             .fetch();
     }
 
-    private JPQLQuery<AclSourceBasePart> getAclSourceBasePartQuery() {
-        return from(aclObjectIdentity).select(aclSourceBasePart)
-            .leftJoin(aclObjectIdentity.ownerSid)
-            .leftJoin(aclObjectIdentity.objectIdClass)
-            .leftJoin(aclObjectIdentity.parentObject);
+    @Override
+    public List<Long> findDescendantIdsById(long id) {
+        @SuppressWarnings("unchecked")
+        List<Object> rows = getEntityManager().createNativeQuery(SELECT_DESCENDANT_IDS)
+            .setParameter("id", id)
+            .getResultList();
+        return rows.stream().map(this::toLong).toList();
+    }
+
+    @Override
+    public List<Long> findParentIdsByIdIn(Collection<Long> ids) {
+        if (CollectionUtils.isEmpty(ids)) {
+            return Collections.emptyList();
+        } else {
+            return from(aclObjectIdentity)
+                .select(aclObjectIdentity.parentObject.id)
+                .distinct()
+                .where(aclObjectIdentity.id.in(padToBucketSize(ids)), aclObjectIdentity.parentObject.isNotNull())
+                .fetch();
+        }
+    }
+
+    @Override
+    public long updateParentToNullByIdIn(Collection<Long> ids) {
+        if (CollectionUtils.isEmpty(ids)) {
+            return 0;
+        } else {
+            return update(aclObjectIdentity)
+                .setNull(aclObjectIdentity.parentObject)
+                .where(aclObjectIdentity.id.in(padToBucketSize(ids)))
+                .execute();
+        }
+    }
+
+    @Override
+    public long deleteAllByIdIn(Collection<Long> ids) {
+        if (CollectionUtils.isEmpty(ids)) {
+            return 0;
+        } else {
+            return delete(aclObjectIdentity)
+                .where(aclObjectIdentity.id.in(padToBucketSize(ids)))
+                .execute();
+        }
+    }
+
+    /**
+     * 객체 식별 정보 별 권한 부여 여부 조회 (상속 되는 조상 ACL 포함)
+     * @param ids 객체 식별 정보 아이디 목록
+     * @param sids (보안 식별 정보, 타입) 쌍 목록 (순서가 우선 순위)
+     * @param mask 검사 할 권한 마스크
+     * @return 객체 식별 정보 아이디 별 권한 부여 여부 맵 (일치 하는 ACE 가 없으면 제외)
+     */
+    private Map<Long, Boolean> findPermissionDecisions(List<Long> ids, List<Pair<String, SidType>> sids, int mask) {
+        if (CollectionUtils.isEmpty(sids)) {
+            return Collections.emptyMap();
+        }
+        String values = IntStream.range(0, sids.size())
+            .mapToObj(i -> "(" + i + ", cast(:sid" + i + " as varchar(255)), cast(:sidType" + i + " as varchar(255)))")
+            .collect(Collectors.joining(", "));
+        Query query = getEntityManager().createNativeQuery(SELECT_MATCHED_ACE_DECISIONS.formatted(values))
+            .setParameter("ids", padToBucketSize(ids))
+            .setParameter("mask", mask);
+        for (int i = 0; i < sids.size(); i++) {
+            query.setParameter("sid" + i, sids.get(i).getFirst());
+            query.setParameter("sidType" + i, sids.get(i).getSecond().name());
+        }
+        @SuppressWarnings("unchecked")
+        List<Object[]> rows = query.getResultList();
+        // The first matched ACE of each object identity decides
+        Map<Long, Boolean> decisions = new HashMap<>();
+        for (Object[] row : rows) {
+            decisions.putIfAbsent(toLong(row[0]), (Boolean) row[1]);
+        }
+        return decisions;
+    }
+
+    /**
+     * 객체 식별 정보 조건을 채운 네이티브 쿼리로 ACL 소스 데이터 목록 조회
+     * @param sqlTemplate 객체 식별 정보 조건 자리 (%s, 별칭 oi) 가 있는 쿼리
+     * @param oids 객체 식별 정보 목록
+     * @return ACE 정보를 포함한 기본 정보 목록
+     */
+    private List<AclSourceBasePart> findAclSourcePartsByObjectIdentityPredicate(String sqlTemplate, Set<ObjectIdentity> oids) {
+        if (CollectionUtils.isEmpty(oids)) {
+            return Collections.emptyList();
+        }
+        Map<Long, List<Serializable>> identifiersMap = getIdentifiersMapByClassId(oids);
+        if (identifiersMap.isEmpty()) {
+            return Collections.emptyList();
+        }
+        List<String> predicates = new ArrayList<>();
+        Map<String, Object> parameters = new HashMap<>();
+        int i = 0;
+        for (Map.Entry<Long, List<Serializable>> entry : identifiersMap.entrySet()) {
+            Pair<List<Long>, List<String>> identifiers = splitIdentifiers(entry.getValue());
+            List<String> columnPredicates = new ArrayList<>();
+            if (!identifiers.getFirst().isEmpty()) {
+                columnPredicates.add("oi.object_id_number in (:numbers" + i + ")");
+                parameters.put("numbers" + i, padToBucketSize(identifiers.getFirst()));
+            }
+            if (!identifiers.getSecond().isEmpty()) {
+                columnPredicates.add("oi.object_id_identity in (:identities" + i + ")");
+                parameters.put("identities" + i, padToBucketSize(identifiers.getSecond()));
+            }
+            predicates.add("(oi.object_id_class = :class" + i + " and (" + String.join(" or ", columnPredicates) + "))");
+            parameters.put("class" + i, entry.getKey());
+            i++;
+        }
+        Query query = getEntityManager().createNativeQuery(sqlTemplate.formatted(String.join(" or ", predicates)));
+        parameters.forEach(query::setParameter);
+        @SuppressWarnings("unchecked")
+        List<Object[]> rows = query.getResultList();
+        return toAclSourceParts(rows);
+    }
+
+    /**
+     * 클래스 이름을 한번에 아이디로 변환 하여 클래스 아이디 별 객체 식별 정보 목록으로 묶는다.
+     * 관리 되지 않는 클래스의 객체 식별 정보는 제외 된다.
+     * @param oids 객체 식별 정보 목록
+     * @return 클래스 아이디 별 객체 식별 정보 목록 맵
+     */
+    private Map<Long, List<Serializable>> getIdentifiersMapByClassId(Set<ObjectIdentity> oids) {
+        Set<String> types = oids.stream().map(ObjectIdentity::getType).collect(Collectors.toSet());
+        // fetch() rather than transform(): transform() scrolls, which leaks the connection outside a transaction
+        Map<String, Long> classIdMap = from(aclClass)
+            .select(aclClass.className, aclClass.id)
+            .where(aclClass.className.in(padToBucketSize(types)))
+            .fetch()
+            .stream()
+            .collect(Collectors.toMap(tuple -> tuple.get(aclClass.className), tuple -> tuple.get(aclClass.id)));
+        return oids.stream()
+            .filter(oid -> classIdMap.containsKey(oid.getType()))
+            .collect(Collectors.groupingBy(
+                oid -> classIdMap.get(oid.getType()),
+                TreeMap::new,
+                Collectors.mapping(ObjectIdentity::getIdentifier, Collectors.toList())
+            ));
+    }
+
+    // Not final: the @Repository bean is a class proxy, and a final setter would only set the proxy's own field
+    public void setObjectIdNumberLookup(boolean objectIdNumberLookup) {
+        this.objectIdNumberLookup = objectIdNumberLookup;
+    }
+
+    /**
+     * 숫자 컬럼 JDBC 배치 수정
+     * @param numbersById 객체 식별 정보 아이디 별 숫자 컬럼 값 맵
+     * @return 수정 된 객체 식별 정보 개수
+     */
+    private long updateObjectIdNumberAll(Map<Long, Long> numbersById) {
+        if (numbersById.isEmpty()) {
+            return 0;
+        }
+        return getEntityManager().unwrap(Session.class).doReturningWork(connection -> {
+            try (PreparedStatement statement = connection.prepareStatement(UPDATE_OBJECT_ID_NUMBER)) {
+                for (Map.Entry<Long, Long> entry : numbersById.entrySet()) {
+                    statement.setLong(1, entry.getValue());
+                    statement.setLong(2, entry.getKey());
+                    statement.addBatch();
+                }
+                return Arrays.stream(statement.executeBatch()).filter(count -> count > 0).count();
+            }
+        });
+    }
+
+    /**
+     * 숫자 컬럼으로 조회 할 객체 식별 정보 값
+     * @param identifier 객체 식별 정보
+     * @return 숫자 컬럼 값 (정수로 표현 할 수 없거나 숫자 컬럼으로 조회 하지 않으면 null)
+     */
+    @Nullable
+    private Long toLookupNumber(Serializable identifier) {
+        return objectIdNumberLookup ? toObjectIdNumber(identifier) : null;
+    }
+
+    /**
+     * 객체 식별 정보 목록을 숫자 컬럼으로 조회 할 정수 목록과 문자열 컬럼으로 조회 할 문자열 목록으로 나눈다.
+     * @param identifiers 객체 식별 정보 목록
+     * @return (정수 목록, 문자열 목록) 쌍
+     */
+    private Pair<List<Long>, List<String>> splitIdentifiers(List<Serializable> identifiers) {
+        List<Long> numbers = new ArrayList<>();
+        List<String> strings = new ArrayList<>();
+        for (Serializable identifier : identifiers) {
+            Long number = toLookupNumber(identifier);
+            if (number == null) {
+                strings.add(identifier.toString());
+            } else {
+                numbers.add(number);
+            }
+        }
+        return Pair.of(numbers, strings);
+    }
+
+    /**
+     * 클래스 아이디와 객체 식별 정보 목록 조회 조건 (정수 객체 식별 정보는 숫자 컬럼으로 조회)
+     * @param classId 클래스 아이디
+     * @param identifiers 객체 식별 정보 목록
+     * @return 쿼리 조건
+     */
+    private BooleanExpression identifiersIn(Long classId, List<Serializable> identifiers) {
+        Pair<List<Long>, List<String>> split = splitIdentifiers(identifiers);
+        BooleanExpression numbersIn = split.getFirst().isEmpty() ? null : aclObjectIdentity.objectIdNumber.in(padToBucketSize(split.getFirst()));
+        BooleanExpression stringsIn = split.getSecond().isEmpty() ? null : aclObjectIdentity.objectIdIdentity.in(padToBucketSize(split.getSecond()));
+        return aclObjectIdentity.objectIdClass.id.eq(classId)
+            .and(numbersIn == null ? stringsIn : numbersIn.or(stringsIn));
+    }
+
+    /**
+     * 객체 식별 정보 일치 조건 (정수 객체 식별 정보는 숫자 컬럼으로 조회)
+     * @param path 객체 식별 정보 경로
+     * @param oid 객체 식별 정보
+     * @return 쿼리 조건
+     */
+    private BooleanExpression identifierEq(QAclObjectIdentity path, ObjectIdentity oid) {
+        Long number = toLookupNumber(oid.getIdentifier());
+        return number == null ? path.objectIdIdentity.eq(oid.getIdentifier().toString()) : path.objectIdNumber.eq(number);
+    }
+
+    /**
+     * 네이티브 쿼리의 객체 식별 정보 일치 조건 (별칭 oi, 파라미터 :identifier)
+     * @param oid 객체 식별 정보
+     * @return 쿼리 조건
+     */
+    private String identifierColumnEq(ObjectIdentity oid) {
+        return toLookupNumber(oid.getIdentifier()) == null ? "oi.object_id_identity = :identifier" : "oi.object_id_number = :identifier";
+    }
+
+    private Object toIdentifierParameter(ObjectIdentity oid) {
+        Long number = toLookupNumber(oid.getIdentifier());
+        return number == null ? oid.getIdentifier().toString() : number;
+    }
+
+    private List<Object[]> getAclSourcePartQuery(Predicate predicate) {
+        return from(aclObjectIdentity).select(aclSourcePartColumns)
+            .leftJoin(aclObjectIdentity.objectIdClass, objectIdClass)
+            .leftJoin(aclObjectIdentity.ownerSid, ownerSid)
+            .leftJoin(aclEntry).on(aclEntry.objectIdentity.eq(aclObjectIdentity))
+            .leftJoin(aclEntry.sid, entrySid)
+            .where(predicate)
+            .orderBy(aclObjectIdentity.id.asc(), aclEntry.aceOrder.asc())
+            .fetch()
+            .stream()
+            .map(Tuple::toArray)
+            .toList();
+    }
+
+    /**
+     * ACL 아이디, ACE 순서로 정렬 된 조회 결과를 ACL 단위로 묶는다.
+     * 기본 정보는 ACL 당 한번만 생성 된다.
+     * @param rows 조회 결과 (컬럼 순서는 {@link #aclSourcePartColumns} 와 같음)
+     * @return ACE 정보를 포함한 기본 정보 목록
+     */
+    private List<AclSourceBasePart> toAclSourceParts(List<Object[]> rows) {
+        List<AclSourceBasePart> baseParts = new ArrayList<>();
+        AclSourceBasePart current = null;
+        for (Object[] row : rows) {
+            Long objectIdentityId = toLong(row[0]);
+            if (current == null || !current.getObjectIdentityId().equals(objectIdentityId)) {
+                current = new AclSourceBasePart(
+                    objectIdentityId,
+                    toLong(row[1]),
+                    (Boolean) row[2],
+                    (String) row[3],
+                    toLong(row[4]),
+                    (String) row[5],
+                    (String) row[6],
+                    toSidType(row[7]),
+                    (String) row[8]
+                );
+                baseParts.add(current);
+            }
+            if (row[9] != null) {
+                current.getAceParts().add(new AclSourceAcePart(
+                    toLong(row[9]),
+                    (String) row[10],
+                    toSidType(row[11]),
+                    (Integer) row[12],
+                    (Boolean) row[13],
+                    (Boolean) row[14],
+                    (Boolean) row[15]
+                ));
+            }
+        }
+        return baseParts;
+    }
+
+    private void setNullableLong(PreparedStatement statement, int index, Long value) throws SQLException {
+        if (value == null) {
+            statement.setNull(index, Types.BIGINT);
+        } else {
+            statement.setLong(index, value);
+        }
+    }
+
+    private Long toLong(Object value) {
+        return value == null ? null : ((Number) value).longValue();
+    }
+
+    private SidType toSidType(Object value) {
+        if (value == null || value instanceof SidType) {
+            return (SidType) value;
+        } else {
+            return SidType.valueOf(value.toString());
+        }
     }
 }
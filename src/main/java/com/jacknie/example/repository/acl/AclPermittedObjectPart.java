@@ -0,0 +1,35 @@
+package com.jacknie.example.repository.acl;
+
+import lombok.Data;
+import org.springframework.lang.Nullable;
+
+@Data
+public class AclPermittedObjectPart {
+
+    /**
+     * 객체 식별 정보 관리 아이디
+     */
+    private final long id;
+
+    /**
+     * 객체 식별 정보
+     */
+    private final String objectIdIdentity;
+
+    /**
+     * 정수 객체 식별 정보
+     */
+    @Nullable
+    private final Long objectIdNumber;
+
+    /**
+     * 객체 식별 정보 클래스 기본 이름
+     */
+    @Nullable
+    private final String classIdType;
+
+    /**
+     * 권한 부여 여부
+     */
+    private final boolean granted;
+}
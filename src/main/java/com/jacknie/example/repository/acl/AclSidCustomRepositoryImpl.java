@@ -7,11 +7,10 @@ import org.springframework.data.jpa.repository.support.QuerydslRepositorySupport
 import org.springframework.data.util.Pair;
 import org.springframework.util.CollectionUtils;
 
-import java.util.Collections;
-import java.util.Map;
-import java.util.Optional;
-import java.util.Set;
+import java.util.*;
+import java.util.stream.Collectors;
 
+import static com.jacknie.example.repository.InClauseParameterUtils.padToBucketSize;
 import static com.jacknie.example.repository.acl.QAclSid.aclSid;
 import static com.querydsl.core.group.GroupBy.groupBy;
 
@@ -39,7 +38,9 @@ public class AclSidCustomRepositoryImpl extends QuerydslRepositorySupport implem
             return toAclSidMap(from(aclSid)
                 .where(
                     sidPairs.stream()
-                        .map(pair -> aclSid.sid.eq(pair.getFirst()).and(aclSid.type.eq(pair.getSecond())))
+                        .collect(Collectors.groupingBy(Pair::getSecond, TreeMap::new, Collectors.mapping(Pair::getFirst, Collectors.toList())))
+                        .entrySet().stream()
+                        .map(entry -> aclSid.type.eq(entry.getKey()).and(aclSid.sid.in(padToBucketSize(entry.getValue()))))
                         .reduce(BooleanExpression::or)
                         .orElseThrow()
                 ));
@@ -51,7 +52,7 @@ public class AclSidCustomRepositoryImpl extends QuerydslRepositorySupport implem
         if (CollectionUtils.isEmpty(sidIds)) {
             return Collections.emptyMap();
         } else {
-            return toAclSidMap(from(aclSid).where(aclSid.id.in(sidIds)));
+            return toAclSidMap(from(aclSid).where(aclSid.id.in(padToBucketSize(sidIds))));
         }
     }
 
@@ -3,6 +3,10 @@ package com.jacknie.example.repository.acl;
 import com.jacknie.example.custom.SidType;
 import com.querydsl.core.annotations.QueryProjection;
 import lombok.Data;
+import org.springframework.lang.Nullable;
+
+import java.util.ArrayList;
+import java.util.List;
 
 @Data
 public class AclSourceBasePart {
@@ -27,6 +31,12 @@ public class AclSourceBasePart {
      */
     private final String objectIdIdentity;
 
+    /**
+     * 정수 객체 식별 정보
+     */
+    @Nullable
+    private final Long objectIdNumber;
+
     /**
      * 객체 식별 정보 아이디 타입
      */
@@ -47,12 +57,18 @@ public class AclSourceBasePart {
      */
     private final String sid;
 
+    /**
+     * ACE 파트 정보 목록 (ACE 순서로 정렬)
+     */
+    private final List<AclSourceAcePart> aceParts = new ArrayList<>();
+
     @QueryProjection
-    public AclSourceBasePart(Long objectIdentityId, Long parentObjectIdentityId, Boolean entriesInheriting, String objectIdIdentity, String classIdType, String className, SidType sidType, String sid) {
+    public AclSourceBasePart(Long objectIdentityId, Long parentObjectIdentityId, Boolean entriesInheriting, String objectIdIdentity, @Nullable Long objectIdNumber, String classIdType, String className, SidType sidType, String sid) {
         this.objectIdentityId = objectIdentityId;
         this.parentObjectIdentityId = parentObjectIdentityId;
         this.entriesInheriting = entriesInheriting;
         this.objectIdIdentity = objectIdIdentity;
+        this.objectIdNumber = objectIdNumber;
         this.classIdType = classIdType;
         this.className = className;
         this.sidType = sidType;
@@ -0,0 +1,67 @@
+package com.jacknie.example.repository.acl;
+
+import org.springframework.lang.Nullable;
+
+import java.io.Serializable;
+
+/**
+ * 정수 객체 식별 정보를 숫자 컬럼(object_id_number) 값으로 다루는 sugar code.
+ * 숫자 컬럼 값은 문자열 컬럼 값이 정수의 표준 표현일 때만 채워지므로 두 컬럼 중 어느 쪽으로 조회 해도 결과가 같다.
+ */
+public abstract class ObjectIdNumberUtils {
+
+    /**
+     * long 범위 정수 문자열의 최대 길이 (부호 포함)
+     */
+    private static final int MAX_LONG_LENGTH = String.valueOf(Long.MIN_VALUE).length();
+
+    private ObjectIdNumberUtils() {
+        throw new UnsupportedOperationException();
+    }
+
+    /**
+     * 객체 식별 정보를 숫자 컬럼 값으로 변환 (정수 타입은 문자열 변환 없이 그대로 사용)
+     * @param identifier 객체 식별 정보
+     * @return 숫자 컬럼 값 (정수로 표현 할 수 없으면 null)
+     */
+    @Nullable
+    public static Long toObjectIdNumber(Serializable identifier) {
+        if (identifier instanceof Long value) {
+            return value;
+        } else if (identifier instanceof Integer || identifier instanceof Short || identifier instanceof Byte) {
+            return ((Number) identifier).longValue();
+        } else if (identifier instanceof String value) {
+            return parseCanonicalLong(value);
+        } else {
+            return null;
+        }
+    }
+
+    /**
+     * 정수의 표준 표현 (앞자리 0, + 부호 없음) 문자열만 변환
+     * @param value 문자열
+     * @return 정수 (표준 표현이 아니면 null)
+     */
+    @Nullable
+    private static Long parseCanonicalLong(String value) {
+        int length = value.length();
+        int start = length > 0 && value.charAt(0) == '-' ? 1 : 0;
+        if (length == start || length > MAX_LONG_LENGTH) {
+            return null;
+        }
+        if (value.charAt(start) == '0' && (length > start + 1 || start == 1)) {
+            return null;
+        }
+        for (int i = start; i < length; i++) {
+            char c = value.charAt(i);
+            if (c < '0' || c > '9') {
+                return null;
+            }
+        }
+        try {
+            return Long.parseLong(value);
+        } catch (NumberFormatException overflow) {
+            return null;
+        }
+    }
+}
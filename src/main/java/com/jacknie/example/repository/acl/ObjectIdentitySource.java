@@ -12,6 +12,12 @@ public class ObjectIdentitySource {
      */
     private final String objectIdIdentity;
 
+    /**
+     * 정수 객체 식별 정보
+     */
+    @Nullable
+    private final Long objectIdNumber;
+
     /**
      * 객체 식별 정보 클래스 이름
      */
@@ -23,8 +29,9 @@ public class ObjectIdentitySource {
     private final String classIdType;
 
     @QueryProjection
-    public ObjectIdentitySource(String objectIdIdentity, String className, @Nullable String classIdType) {
+    public ObjectIdentitySource(String objectIdIdentity, @Nullable Long objectIdNumber, String className, @Nullable String classIdType) {
         this.objectIdIdentity = objectIdIdentity;
+        this.objectIdNumber = objectIdNumber;
         this.className = className;
         this.classIdType = classIdType;
     }
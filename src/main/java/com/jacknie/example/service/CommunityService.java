@@ -1,7 +1,11 @@
 package com.jacknie.example.service;
 
+import com.jacknie.example.custom.KeysetSlice;
 import com.jacknie.example.repository.community.Community;
 import com.jacknie.example.repository.community.CommunityMessage;
+import org.springframework.lang.Nullable;
+
+import java.util.List;
 
 public interface CommunityService {
 
@@ -9,10 +13,14 @@ public interface CommunityService {
 
     Community getCommunity(long communityId);
 
+    KeysetSlice<Community> getReadableCommunities(@Nullable Long cursor, int size);
+
     void inviteCommunity(long communityId, String username);
 
     long newCommunityMessage(long communityId, CommunityMessage message);
 
+    List<CommunityMessage> getCommunityMessages(long communityId);
+
     CommunityMessage getCommunityMessage(long messageId);
 
     void updateCommunityMessage(long messageId, CommunityMessage message);
@@ -1,20 +1,30 @@
 package com.jacknie.example.service;
 
+import com.jacknie.example.custom.AceSpec;
 import com.jacknie.example.custom.EnhancedMutableAclService;
+import com.jacknie.example.custom.KeysetSlice;
 import com.jacknie.example.repository.community.Community;
 import com.jacknie.example.repository.community.CommunityMessage;
 import com.jacknie.example.repository.community.CommunityMessageRepository;
 import com.jacknie.example.repository.community.CommunityRepository;
 import lombok.RequiredArgsConstructor;
+import org.springframework.lang.Nullable;
+import org.springframework.security.access.prepost.PostFilter;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.security.acls.domain.*;
 import org.springframework.security.acls.model.MutableAcl;
 import org.springframework.security.acls.model.ObjectIdentity;
 import org.springframework.security.acls.model.Sid;
+import org.springframework.security.acls.model.SidRetrievalStrategy;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.stereotype.Service;
 
 import javax.transaction.Transactional;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.function.Function;
+import java.util.stream.Collectors;
 
 @Service
 @Transactional
@@ -27,6 +37,7 @@ public class CommunityServiceImpl implements CommunityService {
     private final CommunityRepository communityRepository;
     private final CommunityMessageRepository messageRepository;
     private final EnhancedMutableAclService aclService;
+    private final SidRetrievalStrategy sidRetrievalStrategy = new SidRetrievalStrategyImpl();
 
     @Override
     @PreAuthorize("hasRole('ADMIN')")
@@ -54,13 +65,19 @@ public class CommunityServiceImpl implements CommunityService {
         return communityRepository.findById(communityId).orElseThrow();
     }
 
+    @Override
+    public KeysetSlice<Community> getReadableCommunities(@Nullable Long cursor, int size) {
+        List<Sid> sids = sidRetrievalStrategy.getSids(SecurityContextHolder.getContext().getAuthentication());
+        KeysetSlice<ObjectIdentity> slice = aclService.findPermittedObjectIdentities(COMMUNITY, sids, BasePermission.READ, cursor, size);
+        return slice.withContent(this::getCommunities);
+    }
+
     @Override
     @PreAuthorize("hasPermission(#communityId, '" + COMMUNITY + "', 'ADMINISTRATION')")
     public void inviteCommunity(long communityId, String username) {
-        MutableAcl acl = aclService.getMutableAcl(Community.class.getName(), communityId);
+        ObjectIdentity object = new ObjectIdentityImpl(COMMUNITY, communityId);
         Sid sid = new PrincipalSid(username);
-        acl.insertAce(acl.getEntries().size(), BasePermission.CREATE, sid, true);
-        aclService.updateAcl(acl);
+        aclService.grantPermission(List.of(object), sid, BasePermission.CREATE);
     }
 
     @Override
@@ -71,6 +88,13 @@ public class CommunityServiceImpl implements CommunityService {
                 .orElseThrow();
     }
 
+    @Override
+    @PreAuthorize("hasPermission(#communityId, '" + COMMUNITY + "', 'READ')")
+    @PostFilter("hasPermission(filterObject, 'READ')")
+    public List<CommunityMessage> getCommunityMessages(long communityId) {
+        return messageRepository.findAllByCommunityId(communityId);
+    }
+
     @Override
     @PreAuthorize("hasPermission(#messageId, '" + COMMUNITY_MESSAGE + "', 'READ')")
     public CommunityMessage getCommunityMessage(long messageId) {
@@ -94,19 +118,24 @@ public class CommunityServiceImpl implements CommunityService {
     private long newCommunityMessage(Community community, CommunityMessage message) {
         message.setCommunity(community);
         Long messageId = messageRepository.save(message).getId();
-        MutableAcl communityAcl = aclService.getMutableAcl(Community.class, community.getId());
-        MutableAcl messageAcl = aclService.getMutableAcl(CommunityMessage.class, messageId);
+        ObjectIdentity communityObject = new ObjectIdentityImpl(COMMUNITY, community.getId());
+        ObjectIdentity messageObject = new ObjectIdentityImpl(COMMUNITY_MESSAGE, messageId);
         Sid sid = new PrincipalSid(SecurityContextHolder.getContext().getAuthentication());
         CumulativePermission permission = new CumulativePermission();
         permission.set(BasePermission.WRITE);
         permission.set(BasePermission.DELETE);
-        messageAcl.setOwner(sid);
-        messageAcl.setParent(communityAcl);
-        messageAcl.insertAce(messageAcl.getEntries().size(), permission, sid, true);
-        aclService.updateAcl(messageAcl);
+        AceSpec ace = AceSpec.builder().sid(sid).permission(permission).build();
+        aclService.createChildAcl(communityObject, messageObject, sid, List.of(ace));
         return messageId;
     }
 
+    private List<Community> getCommunities(List<ObjectIdentity> objects) {
+        List<Long> communityIds = objects.stream().map(object -> (Long) object.getIdentifier()).toList();
+        Map<Long, Community> communities = communityRepository.findAllById(communityIds).stream()
+                .collect(Collectors.toMap(Community::getId, Function.identity()));
+        return communityIds.stream().map(communities::get).filter(Objects::nonNull).toList();
+    }
+
     private void updateCommunityMessage(CommunityMessage origin, CommunityMessage target) {
         origin.setTitle(target.getTitle());
         origin.setContent(target.getContent());
@@ -0,0 +1,161 @@
+package com.jacknie.example.custom;
+
+import com.jacknie.example.repository.acl.AclObjectIdentityClosureRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.security.acls.domain.ObjectIdentityImpl;
+import org.springframework.security.acls.model.MutableAcl;
+import org.springframework.security.acls.model.ObjectIdentity;
+import org.springframework.security.test.context.support.WithMockUser;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest(properties = {
+    "spring.datasource.url=jdbc:h2:mem:acl-closure-test",
+    "acl.closure-table=true"
+})
+public class AclObjectIdentityClosureTest extends CustomMutableAclServiceTest {
+
+    private static final String TYPE = "ClosureTest";
+
+    @Autowired
+    private AclObjectIdentityClosureRepository closureRepository;
+
+    @Test
+    @WithMockUser(username = "closureOwner")
+    public void createTest() {
+        ObjectIdentity parent = new ObjectIdentityImpl(TYPE, 1L);
+        ObjectIdentity child = new ObjectIdentityImpl(TYPE, 2L);
+        ObjectIdentity grandChild = new ObjectIdentityImpl(TYPE, 3L);
+        mutableAclService.createAcls(List.of(
+            AclSpec.builder().objectIdentity(parent).build(),
+            AclSpec.builder().objectIdentity(child).parent(parent).build()
+        ));
+        mutableAclService.createChildAcl(child, grandChild, null, List.of());
+
+        long parentId = getId(parent);
+        long childId = getId(child);
+        long grandChildId = getId(grandChild);
+        assertEquals(Map.of(parentId, 0), findAncestors(parentId));
+        assertEquals(Map.of(parentId, 1, childId, 0), findAncestors(childId));
+        assertEquals(Map.of(parentId, 2, childId, 1, grandChildId, 0), findAncestors(grandChildId));
+    }
+
+    @Test
+    @WithMockUser(username = "closureOwner")
+    public void reparentTest() {
+        ObjectIdentity oldParent = new ObjectIdentityImpl(TYPE, 11L);
+        ObjectIdentity newRoot = new ObjectIdentityImpl(TYPE, 12L);
+        ObjectIdentity newParent = new ObjectIdentityImpl(TYPE, 13L);
+        ObjectIdentity child = new ObjectIdentityImpl(TYPE, 14L);
+        ObjectIdentity grandChild = new ObjectIdentityImpl(TYPE, 15L);
+        mutableAclService.createAcls(List.of(
+            AclSpec.builder().objectIdentity(oldParent).build(),
+            AclSpec.builder().objectIdentity(newRoot).build(),
+            AclSpec.builder().objectIdentity(newParent).parent(newRoot).build(),
+            AclSpec.builder().objectIdentity(child).parent(oldParent).build(),
+            AclSpec.builder().objectIdentity(grandChild).parent(child).build()
+        ));
+
+        transactionTemplate.executeWithoutResult(status -> {
+            MutableAcl acl = mutableAclService.getMutableAcl(child);
+            acl.setParent(mutableAclService.getMutableAcl(newParent));
+            mutableAclService.updateAcl(acl);
+        });
+
+        // The whole subtree moves, the closures inside it are kept
+        long newRootId = getId(newRoot);
+        long newParentId = getId(newParent);
+        long childId = getId(child);
+        long grandChildId = getId(grandChild);
+        assertEquals(Map.of(newRootId, 2, newParentId, 1, childId, 0), findAncestors(childId));
+        assertEquals(Map.of(newRootId, 3, newParentId, 2, childId, 1, grandChildId, 0), findAncestors(grandChildId));
+        assertEquals(List.of(getId(oldParent)), closureRepository.findDescendantIdsByAncestor(getId(oldParent)));
+    }
+
+    @Test
+    @WithMockUser(username = "closureOwner")
+    public void deleteTest() {
+        ObjectIdentity parent = new ObjectIdentityImpl(TYPE, 21L);
+        ObjectIdentity child = new ObjectIdentityImpl(TYPE, 22L);
+        ObjectIdentity grandChild = new ObjectIdentityImpl(TYPE, 23L);
+        mutableAclService.createAcls(List.of(
+            AclSpec.builder().objectIdentity(parent).build(),
+            AclSpec.builder().objectIdentity(child).parent(parent).build(),
+            AclSpec.builder().objectIdentity(grandChild).parent(child).build()
+        ));
+        long parentId = getId(parent);
+        long childId = getId(child);
+        long grandChildId = getId(grandChild);
+
+        transactionTemplate.executeWithoutResult(status -> mutableAclService.deleteAcl(child, true));
+
+        assertEquals(List.of(parentId), closureRepository.findDescendantIdsByAncestor(parentId));
+        assertEquals(0, countClosures(childId));
+        assertEquals(0, countClosures(grandChildId));
+    }
+
+    @Test
+    @WithMockUser(username = "closureOwner")
+    public void insertMissingTest() {
+        ObjectIdentity parent = new ObjectIdentityImpl(TYPE, 31L);
+        mutableAclService.createAcls(List.of(AclSpec.builder().objectIdentity(parent).build()));
+        long parentId = getId(parent);
+        long classId = jdbcTemplate.queryForObject("select object_id_class from acl_object_identity where id = ?", Long.class, parentId);
+        long ownerId = jdbcTemplate.queryForObject("select owner_sid from acl_object_identity where id = ?", Long.class, parentId);
+
+        // Rows stored before the closure table was turned on have no closures at all
+        String insertLegacy = "insert into acl_object_identity (object_id_identity, entries_inheriting, parent_object, object_id_class, owner_sid) values (?, true, ?, ?, ?)";
+        jdbcTemplate.update(insertLegacy, "32", parentId, classId, ownerId);
+        long childId = getId(new ObjectIdentityImpl(TYPE, "32"));
+        jdbcTemplate.update(insertLegacy, "33", childId, classId, ownerId);
+        long grandChildId = getId(new ObjectIdentityImpl(TYPE, "33"));
+
+        long inserted = insertMissing();
+
+        assertEquals(5, inserted);
+        assertEquals(Map.of(parentId, 1, childId, 0), findAncestors(childId));
+        assertEquals(Map.of(parentId, 2, childId, 1, grandChildId, 0), findAncestors(grandChildId));
+        // Nothing is left to insert
+        assertEquals(0, insertMissing());
+    }
+
+    private long insertMissing() {
+        return Objects.requireNonNull(transactionTemplate.execute(status -> closureRepository.insertMissing()));
+    }
+
+    private long getId(ObjectIdentity oid) {
+        return jdbcTemplate.queryForObject(
+            "select oi.id from acl_object_identity oi join acl_class c on c.id = oi.object_id_class where c.class = ? and oi.object_id_identity = ?",
+            Long.class,
+            oid.getType(),
+            oid.getIdentifier().toString()
+        );
+    }
+
+    private Map<Long, Integer> findAncestors(long id) {
+        Map<Long, Integer> ancestors = new HashMap<>();
+        jdbcTemplate.query(
+            "select ancestor, depth from acl_object_identity_closure where descendant = ?",
+            rs -> { ancestors.put(rs.getLong(1), rs.getInt(2)); },
+            id
+        );
+        return ancestors;
+    }
+
+    private int countClosures(long id) {
+        return jdbcTemplate.queryForObject(
+            "select count(*) from acl_object_identity_closure where ancestor = ? or descendant = ?",
+            Integer.class,
+            id,
+            id
+        );
+    }
+
+}
@@ -0,0 +1,100 @@
+package com.jacknie.example.custom;
+
+import com.github.benmanes.caffeine.cache.Caffeine;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.security.acls.domain.AclAuthorizationStrategyImpl;
+import org.springframework.security.acls.domain.ConsoleAuditLogger;
+import org.springframework.security.acls.domain.DefaultPermissionFactory;
+import org.springframework.security.acls.domain.DefaultPermissionGrantingStrategy;
+import org.springframework.security.acls.domain.ObjectIdentityImpl;
+import org.springframework.security.acls.domain.PrincipalSid;
+import org.springframework.security.acls.model.Acl;
+import org.springframework.security.acls.model.MutableAcl;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class CaffeineAclCacheTest {
+
+    private static final String TYPE = "CacheTest";
+
+    private CaffeineAclCache aclCache;
+
+    @BeforeEach
+    public void setUp() {
+        aclCache = new CaffeineAclCache(Caffeine.newBuilder().maximumSize(1_000));
+        aclCache.setMaximumInvalidations(10);
+    }
+
+    @Test
+    public void invalidateChildrenTest() {
+        MutableAcl parent = acl(1L, null);
+        MutableAcl child = acl(2L, parent);
+        aclCache.putInCache(child);
+
+        aclCache.evictFromCacheIncludingChildren(1L);
+
+        assertNull(aclCache.getFromCache(2L));
+        assertNull(aclCache.getFromCache(child.getObjectIdentity()));
+    }
+
+    @Test
+    public void trimOldestInvalidationsTest() {
+        MutableAcl oldest = acl(1L, null);
+        aclCache.putInCache(oldest);
+
+        // Each round invalidates an ACL and loads another one afterwards, far past the limit
+        int rounds = 100;
+        for (int i = 0; i < rounds; i++) {
+            aclCache.evictFromCacheIncludingChildren(1_000L + i);
+            aclCache.putInCache(acl(10L + i, null));
+            // Reading the oldest ACL over and over does not keep its generation around
+            aclCache.getFromCache(1L);
+        }
+
+        // ACLs loaded after the retained invalidations stay cached
+        for (int i = rounds - 10; i < rounds; i++) {
+            assertNotNull(aclCache.getFromCache(10L + i), "ACL loaded in round " + i + " is expired");
+        }
+        // ACLs loaded before a dropped invalidation expire, as they cannot be checked against it
+        assertNull(aclCache.getFromCache(1L));
+        assertNull(aclCache.getFromCache(10L));
+
+        // The retained invalidations still expire the children loaded before them
+        MutableAcl parent = acl(2_000L, null);
+        MutableAcl child = acl(2_001L, parent);
+        aclCache.putInCache(child);
+        aclCache.evictFromCacheIncludingChildren(2_000L);
+        assertNull(aclCache.getFromCache(2_001L));
+        assertNotNull(aclCache.getFromCache(10L + rounds - 1));
+    }
+
+    @Test
+    public void reinvalidateTest() {
+        // Invalidating the same ACL again replaces its generation instead of adding another one
+        for (int i = 0; i < 100; i++) {
+            aclCache.evictFromCacheIncludingChildren(1L);
+        }
+        MutableAcl acl = acl(2L, null);
+        aclCache.putInCache(acl);
+        for (int i = 0; i < 5; i++) {
+            aclCache.evictFromCacheIncludingChildren(100L + i);
+        }
+
+        assertSame(acl, aclCache.getFromCache(2L));
+    }
+
+    private MutableAcl acl(long id, Acl parentAcl) {
+        return CompactAcl.builder()
+            .objectIdentity(new ObjectIdentityImpl(TYPE, id))
+            .id(id)
+            .aclAuthorizationStrategy(new AclAuthorizationStrategyImpl(new SimpleGrantedAuthority("ROLE_ADMIN")))
+            .permissionGrantingStrategy(new DefaultPermissionGrantingStrategy(new ConsoleAuditLogger()))
+            .permissionFactory(new DefaultPermissionFactory())
+            .parentAcl(parentAcl)
+            .owner(new PrincipalSid("cacheOwner"))
+            .build();
+    }
+
+}
@@ -0,0 +1,147 @@
+package com.jacknie.example.custom;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.security.acls.domain.BasePermission;
+import org.springframework.security.acls.domain.ObjectIdentityImpl;
+import org.springframework.security.acls.domain.PrincipalSid;
+import org.springframework.security.acls.model.Acl;
+import org.springframework.security.acls.model.MutableAcl;
+import org.springframework.security.acls.model.NotFoundException;
+import org.springframework.security.acls.model.ObjectIdentity;
+import org.springframework.security.acls.model.Sid;
+import org.springframework.security.test.context.support.WithMockUser;
+
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest
+public class CustomLookupStrategyLazyTest extends CustomMutableAclServiceTest {
+
+    private static final String TYPE = "LazyTest";
+
+    private final Sid user = new PrincipalSid("lazyUser");
+
+    @Test
+    @WithMockUser(username = "lazyOwner")
+    public void leafDecidedTest() {
+        ObjectIdentity parent = new ObjectIdentityImpl(TYPE, 1L);
+        ObjectIdentity child = new ObjectIdentityImpl(TYPE, 2L);
+        mutableAclService.createAcls(List.of(
+            AclSpec.builder().objectIdentity(parent).aces(List.of(grant(user, BasePermission.WRITE))).build(),
+            AclSpec.builder().objectIdentity(child).parent(parent).aces(List.of(grant(user, BasePermission.READ))).build()
+        ));
+        aclCache.clearCache();
+
+        // The child's own ACE decides, so the parent is neither queried nor cached
+        assertTrue(isGranted(child, BasePermission.READ, user));
+        assertNull(aclCache.getFromCache(parent));
+
+        // Printing the child does not resolve the parent either
+        assertTrue(mutableAclService.readAclById(child).toString().contains("LazyAclParent"));
+        assertNull(aclCache.getFromCache(parent));
+
+        // Deciding through the parent resolves and caches it
+        assertTrue(isGranted(child, BasePermission.WRITE, user));
+        assertNotNull(aclCache.getFromCache(parent));
+    }
+
+    @Test
+    @WithMockUser(username = "lazyOwner")
+    public void resolveParentThroughCacheTest() {
+        ObjectIdentity parent1 = new ObjectIdentityImpl(TYPE, 11L);
+        ObjectIdentity parent2 = new ObjectIdentityImpl(TYPE, 12L);
+        ObjectIdentity child1 = new ObjectIdentityImpl(TYPE, 13L);
+        ObjectIdentity child2 = new ObjectIdentityImpl(TYPE, 14L);
+        mutableAclService.createAcls(List.of(
+            AclSpec.builder().objectIdentity(parent1).aces(List.of(grant(user, BasePermission.READ))).build(),
+            AclSpec.builder().objectIdentity(parent2).aces(List.of(grant(user, BasePermission.READ))).build(),
+            AclSpec.builder().objectIdentity(child1).parent(parent1).build(),
+            AclSpec.builder().objectIdentity(child2).parent(parent2).build()
+        ));
+        aclCache.clearCache();
+
+        // A parent already in the cache is used as is
+        MutableAcl cachedParent1 = (MutableAcl) mutableAclService.readAclById(parent1);
+        assertSame(cachedParent1, aclCache.getFromCache(parent1));
+        Map<ObjectIdentity, Acl> children = mutableAclService.readAclsById(List.of(child1, child2));
+        assertTrue(children.get(child1).isGranted(List.of(BasePermission.READ), List.of(user), false));
+        assertSame(cachedParent1, aclCache.getFromCache(parent1));
+        assertEquals(parent1, children.get(child1).getParentAcl().getObjectIdentity());
+
+        // An uncached parent is resolved once and then served from the cache
+        assertNull(aclCache.getFromCache(parent2));
+        assertTrue(children.get(child2).isGranted(List.of(BasePermission.READ), List.of(user), false));
+        MutableAcl cachedParent2 = aclCache.getFromCache(parent2);
+        assertNotNull(cachedParent2);
+        assertTrue(children.get(child2).isGranted(List.of(BasePermission.READ), List.of(user), false));
+        assertSame(cachedParent2, aclCache.getFromCache(parent2));
+    }
+
+    @Test
+    @WithMockUser(username = "lazyOwner")
+    public void deletedParentTest() {
+        ObjectIdentity parent = new ObjectIdentityImpl(TYPE, 21L);
+        ObjectIdentity child = new ObjectIdentityImpl(TYPE, 22L);
+        mutableAclService.createAcls(List.of(
+            AclSpec.builder().objectIdentity(parent).aces(List.of(grant(user, BasePermission.READ))).build(),
+            AclSpec.builder().objectIdentity(child).parent(parent).build()
+        ));
+        aclCache.clearCache();
+        Acl childAcl = mutableAclService.readAclById(child);
+
+        transactionTemplate.executeWithoutResult(status -> mutableAclService.deleteAcl(parent, true));
+
+        // A stale child still prints, but deciding through the deleted parent fails
+        assertTrue(childAcl.toString().contains("LazyAclParent"));
+        assertThrows(NotFoundException.class, () -> childAcl.isGranted(List.of(BasePermission.READ), List.of(user), false));
+        assertNull(aclCache.getFromCache(parent));
+    }
+
+    @Test
+    @WithMockUser(username = "lazyOwner")
+    public void invalidateThroughLazyParentTest() {
+        ObjectIdentity parent = new ObjectIdentityImpl(TYPE, 31L);
+        ObjectIdentity child = new ObjectIdentityImpl(TYPE, 32L);
+        mutableAclService.createAcls(List.of(
+            AclSpec.builder().objectIdentity(parent).build(),
+            AclSpec.builder().objectIdentity(child).parent(parent).aces(List.of(grant(user, BasePermission.READ))).build()
+        ));
+        aclCache.clearCache();
+        mutableAclService.readAclById(child);
+        assertNotNull(aclCache.getFromCache(child));
+        assertNull(aclCache.getFromCache(parent));
+
+        // The child sees the invalidation of its parent by id, although the parent was never loaded
+        mutableAclService.grantPermission(List.of(parent), user, BasePermission.WRITE);
+        assertNull(aclCache.getFromCache(child));
+    }
+
+    @Test
+    @WithMockUser(username = "lazyOwner")
+    public void deleteSubtreeTest() {
+        ObjectIdentity grandParent = new ObjectIdentityImpl(TYPE, 41L);
+        ObjectIdentity parent = new ObjectIdentityImpl(TYPE, 42L);
+        ObjectIdentity child = new ObjectIdentityImpl(TYPE, 43L);
+        ObjectIdentity other = new ObjectIdentityImpl(TYPE, 44L);
+        mutableAclService.createAcls(List.of(
+            AclSpec.builder().objectIdentity(grandParent).build(),
+            AclSpec.builder().objectIdentity(parent).parent(grandParent).build(),
+            AclSpec.builder().objectIdentity(child).parent(parent).aces(List.of(grant(user, BasePermission.READ))).build(),
+            AclSpec.builder().objectIdentity(other).build()
+        ));
+        aclCache.clearCache();
+        mutableAclService.readAclsById(List.of(child, other));
+        assertNull(aclCache.getFromCache(parent));
+
+        transactionTemplate.executeWithoutResult(status -> mutableAclService.deleteAcl(grandParent, true));
+
+        // The grandchild is expired through its deleted parent, which was never loaded, and nothing else is
+        assertNull(aclCache.getFromCache(child));
+        assertThrows(NotFoundException.class, () -> mutableAclService.readAclById(child));
+        assertNotNull(aclCache.getFromCache(other));
+    }
+
+}
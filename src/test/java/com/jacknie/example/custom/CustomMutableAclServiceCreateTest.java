@@ -0,0 +1,157 @@
+package com.jacknie.example.custom;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.security.acls.domain.BasePermission;
+import org.springframework.security.acls.domain.ObjectIdentityImpl;
+import org.springframework.security.acls.domain.PrincipalSid;
+import org.springframework.security.acls.model.*;
+import org.springframework.security.test.context.support.WithMockUser;
+
+import java.io.Serializable;
+import java.util.*;
+import java.util.concurrent.*;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest
+public class CustomMutableAclServiceCreateTest extends CustomMutableAclServiceTest {
+
+    private static final String TYPE = "CreateTest";
+
+    @Autowired
+    private AclOperations aclOperations;
+
+    @Test
+    @WithMockUser(username = "batchOwner")
+    public void createAclsWithInnerAndOuterParentsTest() {
+        ObjectIdentity outerParent = new ObjectIdentityImpl(TYPE, 100L);
+        ObjectIdentity child1 = new ObjectIdentityImpl(TYPE, 101L);
+        ObjectIdentity child2 = new ObjectIdentityImpl(TYPE, 102L);
+        ObjectIdentity grandChild = new ObjectIdentityImpl(TYPE, 103L);
+        ObjectIdentity orphan = new ObjectIdentityImpl(TYPE, 104L);
+        Sid reader = new PrincipalSid("batchReader");
+        mutableAclService.createAcls(List.of(AclSpec.builder()
+            .objectIdentity(outerParent)
+            .aces(List.of(grant(reader, BasePermission.READ)))
+            .build()));
+
+        Map<ObjectIdentity, MutableAcl> created = mutableAclService.createAcls(List.of(
+            AclSpec.builder().objectIdentity(child1).parent(outerParent).build(),
+            AclSpec.builder().objectIdentity(child2).parent(outerParent).entriesInheriting(false).build(),
+            AclSpec.builder().objectIdentity(grandChild).parent(child1)
+                .aces(List.of(deny(reader, BasePermission.WRITE), grant(reader, BasePermission.WRITE)))
+                .build(),
+            AclSpec.builder().objectIdentity(orphan).build()
+        ));
+        assertEquals(List.of(child1, child2, grandChild, orphan), List.copyOf(created.keySet()));
+
+        // Read everything back from the database, not from the cached copies
+        aclCache.clearCache();
+        Acl grandChildAcl = mutableAclService.readAclById(grandChild);
+        assertEquals(child1, grandChildAcl.getParentAcl().getObjectIdentity());
+        assertEquals(outerParent, grandChildAcl.getParentAcl().getParentAcl().getObjectIdentity());
+        assertEquals(new PrincipalSid("batchOwner"), grandChildAcl.getOwner());
+        assertEquals(List.of(false, true), grandChildAcl.getEntries().stream().map(AccessControlEntry::isGranting).toList());
+        assertTrue(isGranted(grandChild, BasePermission.READ, reader));
+        assertFalse(isGranted(grandChild, BasePermission.WRITE, reader));
+        assertEquals(outerParent, mutableAclService.readAclById(child2).getParentAcl().getObjectIdentity());
+        assertThrows(NotFoundException.class, () -> isGranted(child2, BasePermission.READ, reader));
+        assertNull(mutableAclService.readAclById(orphan).getParentAcl());
+        assertEquals(List.of(child1, child2), mutableAclService.findChildren(outerParent));
+    }
+
+    @Test
+    @WithMockUser(username = "batchOwner")
+    public void createAclsDuplicatedObjectIdentityTest() {
+        ObjectIdentity existing = new ObjectIdentityImpl(TYPE, 200L);
+        ObjectIdentity fresh = new ObjectIdentityImpl(TYPE, 201L);
+        mutableAclService.createAcls(List.of(AclSpec.builder().objectIdentity(existing).build()));
+
+        // Duplicated in the same batch
+        assertThrows(IllegalArgumentException.class, () -> mutableAclService.createAcls(List.of(
+            AclSpec.builder().objectIdentity(fresh).build(),
+            AclSpec.builder().objectIdentity(fresh).build()
+        )));
+        // Already persisted
+        assertThrows(AlreadyExistsException.class, () -> mutableAclService.createAcls(List.of(
+            AclSpec.builder().objectIdentity(fresh).build(),
+            AclSpec.builder().objectIdentity(existing).build()
+        )));
+        // Parent neither persisted nor in the batch
+        assertThrows(NotFoundException.class, () -> mutableAclService.createAcls(List.of(
+            AclSpec.builder().objectIdentity(fresh).parent(new ObjectIdentityImpl(TYPE, 299L)).build()
+        )));
+
+        // A failed batch stores nothing
+        aclCache.clearCache();
+        assertThrows(NotFoundException.class, () -> mutableAclService.readAclById(fresh));
+    }
+
+    @Test
+    @WithMockUser(username = "existingOwner")
+    public void getMutableAclExistingTest() {
+        ObjectIdentity oid = new ObjectIdentityImpl(TYPE, 300L);
+        Sid reader = new PrincipalSid("existingReader");
+        MutableAcl created = mutableAclService.createAcls(List.of(AclSpec.builder()
+            .objectIdentity(oid)
+            .aces(List.of(grant(reader, BasePermission.READ)))
+            .build())).get(oid);
+        aclCache.clearCache();
+        int rowCount = countObjectIdentities();
+
+        MutableAcl acl = withAuthentication("otherUser", () -> mutableAclService.getMutableAcl(oid));
+
+        // The stored ACL is returned as is, owner included, and nothing is inserted
+        assertEquals(rowCount, countObjectIdentities());
+        assertEquals(created.getId(), acl.getId());
+        assertEquals(new PrincipalSid("existingOwner"), acl.getOwner());
+        assertEquals(1, acl.getEntries().size());
+
+        // A creator that lost the race past the cache reads the stored ACL back instead of inserting
+        AclSource source = transactionTemplate.execute(status -> aclOperations.getOrCreateAcl(oid, new PrincipalSid("otherUser")));
+        assertEquals(rowCount, countObjectIdentities());
+        assertEquals(created.getId(), Objects.requireNonNull(source).getAclId());
+        assertEquals("existingOwner", source.getAclSid());
+        assertEquals(1, source.getAces().size());
+    }
+
+    @Test
+    public void getMutableAclConcurrentTest() throws Exception {
+        ObjectIdentity oid = new ObjectIdentityImpl(TYPE, 400L);
+        int creatorCount = 8;
+        ExecutorService executor = Executors.newFixedThreadPool(creatorCount);
+        CountDownLatch start = new CountDownLatch(1);
+        try {
+            List<Future<MutableAcl>> futures = new ArrayList<>();
+            for (int i = 0; i < creatorCount; i++) {
+                String username = "concurrentUser" + i;
+                futures.add(executor.submit(() -> {
+                    start.await();
+                    return withAuthentication(username, () -> mutableAclService.getMutableAcl(oid));
+                }));
+            }
+            start.countDown();
+
+            // Every creator gets the same ACL without an exception
+            Set<Serializable> ids = new HashSet<>();
+            for (Future<MutableAcl> future : futures) {
+                ids.add(future.get(30, TimeUnit.SECONDS).getId());
+            }
+            assertEquals(1, ids.size());
+        } finally {
+            executor.shutdownNow();
+        }
+        assertEquals(1, jdbcTemplate.queryForObject(
+            "select count(*) from acl_object_identity where object_id_identity = '400' and object_id_class = (select id from acl_class where class = ?)",
+            Integer.class,
+            TYPE
+        ));
+    }
+
+    private int countObjectIdentities() {
+        return Objects.requireNonNull(jdbcTemplate.queryForObject("select count(*) from acl_object_identity", Integer.class));
+    }
+
+}
@@ -0,0 +1,97 @@
+package com.jacknie.example.custom;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.security.acls.domain.ObjectIdentityImpl;
+import org.springframework.security.acls.model.ObjectIdentity;
+import org.springframework.security.test.context.support.WithMockUser;
+
+import java.io.Serializable;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest
+public class CustomMutableAclServiceIdentifierTest extends CustomMutableAclServiceTest {
+
+    private static final String LONG_TYPE = "IdentifierLongTest";
+    private static final String INTEGER_TYPE = "IdentifierIntegerTest";
+    private static final String STRING_TYPE = "IdentifierStringTest";
+    private static final String UNKNOWN_TYPE = "IdentifierUnknownTest";
+
+    @Test
+    @WithMockUser(username = "identifierOwner")
+    public void longTest() {
+        ObjectIdentity parent = new ObjectIdentityImpl(LONG_TYPE, 1L);
+        ObjectIdentity child = new ObjectIdentityImpl(LONG_TYPE, 2L);
+        ObjectIdentity legacy = new ObjectIdentityImpl(LONG_TYPE, 3L);
+        createAcls(parent, child, legacy);
+        // A row without a number is converted from the string column
+        jdbcTemplate.update("update acl_object_identity set object_id_number = null where object_id_identity = '3' and object_id_class = (select id from acl_class where class = ?)", LONG_TYPE);
+
+        assertIdentifier(1L, parent);
+        assertIdentifier(2L, child);
+        assertChildIdentifiers(List.of(2L, 3L), parent);
+    }
+
+    @Test
+    @WithMockUser(username = "identifierOwner")
+    public void integerTest() {
+        ObjectIdentity parent = new ObjectIdentityImpl(INTEGER_TYPE, 1);
+        ObjectIdentity child = new ObjectIdentityImpl(INTEGER_TYPE, 2);
+        createAcls(parent, child);
+
+        assertIdentifier(1, parent);
+        assertIdentifier(2, child);
+        assertChildIdentifiers(List.of(2), parent);
+    }
+
+    @Test
+    @WithMockUser(username = "identifierOwner")
+    public void stringTest() {
+        ObjectIdentity parent = new ObjectIdentityImpl(STRING_TYPE, "parent");
+        ObjectIdentity child = new ObjectIdentityImpl(STRING_TYPE, "1");
+        createAcls(parent, child);
+
+        // A numeric string keeps its type even though the number column is filled
+        assertIdentifier("parent", parent);
+        assertIdentifier("1", child);
+        assertChildIdentifiers(List.of("1"), parent);
+    }
+
+    @Test
+    @WithMockUser(username = "identifierOwner")
+    public void unknownTypeTest() {
+        ObjectIdentity parent = new ObjectIdentityImpl(UNKNOWN_TYPE, "parent");
+        ObjectIdentity child = new ObjectIdentityImpl(UNKNOWN_TYPE, "child");
+        createAcls(parent, child);
+        jdbcTemplate.update("update acl_class set class_id_type = 'com.jacknie.example.MissingId' where class = ?", UNKNOWN_TYPE);
+
+        // A type that is not on the classpath leaves the identifier as stored
+        assertIdentifier("parent", parent);
+        assertIdentifier("child", child);
+        assertChildIdentifiers(List.of("child"), parent);
+    }
+
+    private void createAcls(ObjectIdentity parent, ObjectIdentity... children) {
+        AclSpec parentSpec = AclSpec.builder().objectIdentity(parent).build();
+        List<AclSpec> childSpecs = List.of(children).stream().map(child -> AclSpec.builder().objectIdentity(child).parent(parent).build()).toList();
+        mutableAclService.createAcls(List.of(parentSpec));
+        mutableAclService.createAcls(childSpecs);
+    }
+
+    private void assertIdentifier(Serializable expected, ObjectIdentity oid) {
+        // Read back from the database, not from the cached copy
+        aclCache.clearCache();
+        Serializable identifier = mutableAclService.readAclById(oid).getObjectIdentity().getIdentifier();
+        assertEquals(expected.getClass(), identifier.getClass());
+        assertEquals(expected, identifier);
+    }
+
+    private void assertChildIdentifiers(List<? extends Serializable> expected, ObjectIdentity parent) {
+        List<Serializable> identifiers = mutableAclService.findChildren(parent).stream().map(ObjectIdentity::getIdentifier).toList();
+        assertEquals(expected.stream().map(Object::getClass).toList(), identifiers.stream().map(Object::getClass).toList());
+        assertEquals(expected, identifiers);
+    }
+
+}
@@ -0,0 +1,128 @@
+package com.jacknie.example.custom;
+
+import com.jacknie.example.repository.acl.AclObjectIdentityCustomRepositoryImpl;
+import com.jacknie.example.repository.acl.AclObjectIdentityRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.security.acls.domain.BasePermission;
+import org.springframework.security.acls.domain.ObjectIdentityImpl;
+import org.springframework.security.acls.domain.PrincipalSid;
+import org.springframework.security.acls.model.MutableAcl;
+import org.springframework.security.acls.model.ObjectIdentity;
+import org.springframework.security.acls.model.Sid;
+import org.springframework.security.test.context.support.WithMockUser;
+
+import java.util.List;
+import java.util.Objects;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest
+public class CustomMutableAclServiceLegacyRowTest extends CustomMutableAclServiceTest {
+
+    private static final String NUMBER_TYPE = "LegacyNumberTest";
+    private static final String STRING_TYPE = "LegacyStringTest";
+
+    @Autowired
+    private AclObjectIdentityRepository oidRepository;
+
+    @Autowired
+    private AclObjectIdentityCustomRepositoryImpl oidRepositoryImpl;
+
+    private final Sid reader = new PrincipalSid("legacyReader");
+
+    @Test
+    @WithMockUser(username = "legacyOwner")
+    public void legacyRowTest() {
+        ObjectIdentity numberSeed = new ObjectIdentityImpl(NUMBER_TYPE, 501L);
+        ObjectIdentity stringSeed = new ObjectIdentityImpl(STRING_TYPE, "seed");
+        mutableAclService.createAcls(List.of(
+            AclSpec.builder().objectIdentity(numberSeed).build(),
+            AclSpec.builder().objectIdentity(stringSeed).build()
+        ));
+
+        // Other tests share the database, so their rows without a number are filled first
+        backfill(1000);
+
+        // Rows stored before the number column existed have no number, whatever their identifier
+        long parentId = insertLegacyRow(numberSeed, "502", null);
+        long childId = insertLegacyRow(numberSeed, "503", parentId);
+        long stringId = insertLegacyRow(stringSeed, "abc", null);
+        ObjectIdentity parent = new ObjectIdentityImpl(NUMBER_TYPE, 502L);
+        ObjectIdentity child = new ObjectIdentityImpl(NUMBER_TYPE, 503L);
+        ObjectIdentity string = new ObjectIdentityImpl(STRING_TYPE, "abc");
+
+        // Until they are backfilled, they are found only through the string column
+        oidRepositoryImpl.setObjectIdNumberLookup(false);
+        try {
+            assertEquals(parentId, readAclId(parent));
+            assertEquals(List.of(child), mutableAclService.findChildren(parent));
+        } finally {
+            oidRepositoryImpl.setObjectIdNumberLookup(true);
+            aclCache.clearCache();
+        }
+
+        long updated = backfill(2);
+
+        assertEquals(2, updated);
+        assertEquals(502L, findObjectIdNumber(parentId));
+        assertEquals(503L, findObjectIdNumber(childId));
+        assertNull(findObjectIdNumber(stringId));
+
+        // Every lookup by number finds the backfilled rows
+        assertEquals(parentId, readAclId(parent));
+        assertEquals(parent, mutableAclService.readAclById(child).getParentAcl().getObjectIdentity());
+        assertEquals(List.of(child), mutableAclService.findChildren(parent));
+        mutableAclService.grantPermission(List.of(parent), reader, BasePermission.READ);
+        assertTrue(isGranted(child, BasePermission.READ, reader));
+        MutableAcl existing = withAuthentication("legacyReader", () -> mutableAclService.getMutableAcl(parent));
+        assertEquals(parentId, existing.getId());
+        // Non-numeric identifiers keep being found through the string column
+        assertEquals(stringId, readAclId(string));
+        assertFalse(mutableAclService.isGranted(List.of(string), List.of(BasePermission.READ), List.of(reader)).isNotFound(0));
+        // Two seeds and three legacy rows, nothing is inserted by the lookups
+        assertEquals(5, countRows(NUMBER_TYPE) + countRows(STRING_TYPE));
+    }
+
+    private Object readAclId(ObjectIdentity oid) {
+        return ((MutableAcl) mutableAclService.readAclById(oid)).getId();
+    }
+
+    private long backfill(int batchSize) {
+        return Objects.requireNonNull(transactionTemplate.execute(status -> oidRepository.updateMissingObjectIdNumbers(batchSize)));
+    }
+
+    private long insertLegacyRow(ObjectIdentity sameClass, String identifier, Long parentId) {
+        jdbcTemplate.update(
+            """
+            insert into acl_object_identity (object_id_identity, entries_inheriting, parent_object, object_id_class, owner_sid)
+            select ?, true, ?, object_id_class, owner_sid from acl_object_identity where object_id_identity = ?
+            and object_id_class = (select id from acl_class where class = ?)
+            """,
+            identifier,
+            parentId,
+            sameClass.getIdentifier().toString(),
+            sameClass.getType()
+        );
+        return Objects.requireNonNull(jdbcTemplate.queryForObject(
+            "select id from acl_object_identity where object_id_identity = ? and object_id_class = (select id from acl_class where class = ?)",
+            Long.class,
+            identifier,
+            sameClass.getType()
+        ));
+    }
+
+    private int countRows(String type) {
+        return Objects.requireNonNull(jdbcTemplate.queryForObject(
+            "select count(*) from acl_object_identity where object_id_class = (select id from acl_class where class = ?)",
+            Integer.class,
+            type
+        ));
+    }
+
+    private Long findObjectIdNumber(long id) {
+        return jdbcTemplate.queryForObject("select object_id_number from acl_object_identity where id = ?", Long.class, id);
+    }
+
+}
@@ -0,0 +1,170 @@
+package com.jacknie.example.custom;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.security.acls.domain.BasePermission;
+import org.springframework.security.acls.domain.ObjectIdentityImpl;
+import org.springframework.security.acls.domain.PrincipalSid;
+import org.springframework.security.acls.model.AccessControlEntry;
+import org.springframework.security.acls.model.NotFoundException;
+import org.springframework.security.acls.model.ObjectIdentity;
+import org.springframework.security.acls.model.Sid;
+import org.springframework.security.test.context.support.WithMockUser;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest
+public class CustomMutableAclServicePermissionTest extends CustomMutableAclServiceTest {
+
+    private static final String TYPE = "PermissionTest";
+
+    private final Sid user = new PrincipalSid("permissionUser");
+    private final Sid other = new PrincipalSid("permissionOther");
+
+    @Test
+    @WithMockUser(username = "permissionOwner")
+    public void grantPermissionTest() {
+        ObjectIdentity granted = new ObjectIdentityImpl(TYPE, 1L);
+        ObjectIdentity empty = new ObjectIdentityImpl(TYPE, 2L);
+        ObjectIdentity denied = new ObjectIdentityImpl(TYPE, 3L);
+        ObjectIdentity untouched = new ObjectIdentityImpl(TYPE, 4L);
+        mutableAclService.createAcls(List.of(
+            AclSpec.builder().objectIdentity(granted).aces(List.of(grant(user, BasePermission.READ))).build(),
+            AclSpec.builder().objectIdentity(empty).aces(List.of(grant(other, BasePermission.READ))).build(),
+            AclSpec.builder().objectIdentity(denied).aces(List.of(deny(user, BasePermission.WRITE))).build(),
+            AclSpec.builder().objectIdentity(untouched).build()
+        ));
+        mutableAclService.readAclsById(List.of(granted, empty, denied, untouched));
+
+        mutableAclService.grantPermission(List.of(granted, empty, denied), user, BasePermission.WRITE);
+
+        // Only the changed ACLs are evicted
+        assertNull(aclCache.getFromCache(granted));
+        assertNull(aclCache.getFromCache(empty));
+        assertNotNull(aclCache.getFromCache(denied));
+        assertNotNull(aclCache.getFromCache(untouched));
+
+        // The missing bit is added to the existing granting ACE
+        assertEquals(List.of(BasePermission.READ.getMask() | BasePermission.WRITE.getMask()), getMasks(granted));
+        assertTrue(isGranted(granted, BasePermission.WRITE, user));
+        // A granting ACE is appended after the existing ones
+        assertEquals(List.of(other, user), mutableAclService.readAclById(empty).getEntries().stream().map(AccessControlEntry::getSid).toList());
+        assertTrue(isGranted(empty, BasePermission.WRITE, user));
+        // The SID's own deny ACE still decides, so nothing is written
+        assertEquals(1, mutableAclService.readAclById(denied).getEntries().size());
+        assertFalse(isGranted(denied, BasePermission.WRITE, user));
+
+        // Granting again changes nothing
+        mutableAclService.grantPermission(List.of(granted, empty), user, BasePermission.WRITE);
+        assertNotNull(aclCache.getFromCache(granted));
+        assertNotNull(aclCache.getFromCache(empty));
+    }
+
+    @Test
+    @WithMockUser(username = "permissionOwner")
+    public void revokePermissionTest() {
+        ObjectIdentity both = new ObjectIdentityImpl(TYPE, 11L);
+        ObjectIdentity writeOnly = new ObjectIdentityImpl(TYPE, 12L);
+        ObjectIdentity untouched = new ObjectIdentityImpl(TYPE, 13L);
+        mutableAclService.createAcls(List.of(
+            AclSpec.builder().objectIdentity(both).aces(List.of(grant(user, BasePermission.READ), grant(other, BasePermission.READ))).build(),
+            AclSpec.builder().objectIdentity(writeOnly).aces(List.of(grant(user, BasePermission.WRITE))).build(),
+            AclSpec.builder().objectIdentity(untouched).aces(List.of(grant(user, BasePermission.READ))).build()
+        ));
+        mutableAclService.grantPermission(List.of(both), user, BasePermission.WRITE);
+        mutableAclService.readAclsById(List.of(both, writeOnly, untouched));
+
+        mutableAclService.revokePermission(List.of(both, writeOnly), user, BasePermission.READ);
+
+        // The ACL without the revoked bit is left in the cache
+        assertNull(aclCache.getFromCache(both));
+        assertNotNull(aclCache.getFromCache(writeOnly));
+        assertNotNull(aclCache.getFromCache(untouched));
+        assertEquals(List.of(BasePermission.WRITE.getMask(), BasePermission.READ.getMask()), getMasks(both));
+        assertThrows(NotFoundException.class, () -> isGranted(both, BasePermission.READ, user));
+
+        mutableAclService.revokePermission(List.of(both, writeOnly), user, BasePermission.WRITE);
+
+        // ACEs left without any bit are deleted, other SIDs' ACEs are kept
+        assertNull(aclCache.getFromCache(writeOnly));
+        assertEquals(List.of(other), mutableAclService.readAclById(both).getEntries().stream().map(AccessControlEntry::getSid).toList());
+        assertTrue(mutableAclService.readAclById(writeOnly).getEntries().isEmpty());
+        assertTrue(isGranted(untouched, BasePermission.READ, user));
+    }
+
+    @Test
+    @WithMockUser(username = "permissionOwner")
+    public void isGrantedBulkTest() {
+        ObjectIdentity readable = new ObjectIdentityImpl(TYPE, 21L);
+        ObjectIdentity denied = new ObjectIdentityImpl(TYPE, 22L);
+        ObjectIdentity noMatch = new ObjectIdentityImpl(TYPE, 23L);
+        ObjectIdentity missing = new ObjectIdentityImpl(TYPE, 24L);
+        mutableAclService.createAcls(List.of(
+            AclSpec.builder().objectIdentity(readable).aces(List.of(grant(user, BasePermission.READ))).build(),
+            AclSpec.builder().objectIdentity(denied).aces(List.of(deny(user, BasePermission.READ))).build(),
+            AclSpec.builder().objectIdentity(noMatch).aces(List.of(grant(other, BasePermission.READ))).build()
+        ));
+
+        GrantedPermissions result = mutableAclService.isGranted(
+            List.of(readable, denied, noMatch, missing, readable),
+            List.of(BasePermission.READ, BasePermission.WRITE),
+            List.of(user)
+        );
+
+        assertTrue(result.isGranted(0, 0));
+        assertFalse(result.isGranted(0, 1));
+        assertTrue(result.isGranted(4, 0));
+        // Denied, unmatched and missing ACLs are all not granted, only the missing one is marked as not found
+        for (int i = 1; i < 4; i++) {
+            assertFalse(result.isGranted(i, 0));
+            assertFalse(result.isGranted(i, 1));
+        }
+        assertEquals(List.of(false, false, false, true, false), IntStream.range(0, 5).mapToObj(result::isNotFound).toList());
+        assertTrue(mutableAclService.isGranted(List.of(), List.of(BasePermission.READ), List.of(user)).getGranted().isEmpty());
+    }
+
+    private List<Integer> getMasks(ObjectIdentity oid) {
+        return mutableAclService.readAclById(oid).getEntries().stream()
+            .map(ace -> ace.getPermission().getMask())
+            .toList();
+    }
+
+    @Test
+    @WithMockUser(username = "permissionOwner")
+    public void findPermittedObjectIdentitiesTest() {
+        String type = "PermittedTest";
+        ObjectIdentity root = new ObjectIdentityImpl("PermittedRootTest", 1L);
+        ObjectIdentity direct1 = new ObjectIdentityImpl(type, 11L);
+        ObjectIdentity inheriting = new ObjectIdentityImpl(type, 12L);
+        ObjectIdentity notInheriting = new ObjectIdentityImpl(type, 13L);
+        ObjectIdentity inheritingDenied = new ObjectIdentityImpl(type, 14L);
+        ObjectIdentity denyFirst = new ObjectIdentityImpl(type, 15L);
+        ObjectIdentity direct2 = new ObjectIdentityImpl(type, 16L);
+        List<AclSpec> specs = new ArrayList<>();
+        specs.add(AclSpec.builder().objectIdentity(root).aces(List.of(grant(user, BasePermission.READ))).build());
+        // Most of the class is readable by someone else only
+        IntStream.range(100, 110).forEach(i -> specs.add(AclSpec.builder().objectIdentity(new ObjectIdentityImpl(type, (long) i)).aces(List.of(grant(other, BasePermission.READ))).build()));
+        specs.add(AclSpec.builder().objectIdentity(direct1).aces(List.of(grant(user, BasePermission.READ))).build());
+        IntStream.range(110, 120).forEach(i -> specs.add(AclSpec.builder().objectIdentity(new ObjectIdentityImpl(type, (long) i)).build()));
+        specs.add(AclSpec.builder().objectIdentity(inheriting).parent(root).build());
+        specs.add(AclSpec.builder().objectIdentity(notInheriting).parent(root).entriesInheriting(false).build());
+        specs.add(AclSpec.builder().objectIdentity(inheritingDenied).parent(root).aces(List.of(deny(user, BasePermission.READ))).build());
+        specs.add(AclSpec.builder().objectIdentity(denyFirst).aces(List.of(deny(user, BasePermission.READ), grant(user, BasePermission.READ))).build());
+        specs.add(AclSpec.builder().objectIdentity(direct2).aces(List.of(grant(user, BasePermission.READ))).build());
+        IntStream.range(120, 125).forEach(i -> specs.add(AclSpec.builder().objectIdentity(new ObjectIdentityImpl(type, (long) i)).build()));
+        mutableAclService.createAcls(specs);
+
+        // Each page is filled past the denied candidates, until the candidates run out
+        KeysetSlice<ObjectIdentity> first = mutableAclService.findPermittedObjectIdentities(type, List.of(user), BasePermission.READ, null, 2);
+        assertEquals(List.of(direct1, inheriting), first.getContent());
+        assertTrue(first.hasNext());
+        KeysetSlice<ObjectIdentity> second = mutableAclService.findPermittedObjectIdentities(type, List.of(user), BasePermission.READ, first.getNextCursor(), 2);
+        assertEquals(List.of(direct2), second.getContent());
+        assertFalse(second.hasNext());
+    }
+
+}
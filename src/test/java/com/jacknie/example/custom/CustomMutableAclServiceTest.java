@@ -0,0 +1,57 @@
+package com.jacknie.example.custom;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.security.acls.model.Acl;
+import org.springframework.security.acls.model.ObjectIdentity;
+import org.springframework.security.acls.model.Permission;
+import org.springframework.security.acls.model.Sid;
+import org.springframework.security.authentication.TestingAuthenticationToken;
+import org.springframework.security.core.context.SecurityContext;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.function.Supplier;
+
+public class CustomMutableAclServiceTest {
+
+    @Autowired
+    protected EnhancedMutableAclService mutableAclService;
+
+    @Autowired
+    protected EnhancedAclCache aclCache;
+
+    @Autowired
+    protected TransactionTemplate transactionTemplate;
+
+    @Autowired
+    protected JdbcTemplate jdbcTemplate;
+
+    protected AceSpec grant(Sid sid, Permission permission) {
+        return AceSpec.builder().sid(sid).permission(permission).build();
+    }
+
+    protected AceSpec deny(Sid sid, Permission permission) {
+        return AceSpec.builder().sid(sid).permission(permission).granting(false).build();
+    }
+
+    protected <R> R withAuthentication(String username, Supplier<R> supplier) {
+        SecurityContext originContext = SecurityContextHolder.getContext();
+        SecurityContext context = SecurityContextHolder.createEmptyContext();
+        context.setAuthentication(new TestingAuthenticationToken(username, username, Collections.emptyList()));
+        SecurityContextHolder.setContext(context);
+        try {
+            return supplier.get();
+        } finally {
+            SecurityContextHolder.setContext(originContext);
+        }
+    }
+
+    protected boolean isGranted(ObjectIdentity oid, Permission permission, Sid sid) {
+        Acl acl = mutableAclService.readAclById(oid);
+        return acl.isGranted(List.of(permission), List.of(sid), false);
+    }
+
+}
@@ -0,0 +1,147 @@
+package com.jacknie.example.custom;
+
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.security.access.PermissionEvaluator;
+import org.springframework.security.acls.AclPermissionEvaluator;
+import org.springframework.security.acls.domain.BasePermission;
+import org.springframework.security.acls.domain.GrantedAuthoritySid;
+import org.springframework.security.acls.domain.ObjectIdentityImpl;
+import org.springframework.security.acls.domain.PrincipalSid;
+import org.springframework.security.acls.model.ObjectIdentity;
+import org.springframework.security.acls.model.Permission;
+import org.springframework.security.acls.model.Sid;
+import org.springframework.security.authentication.TestingAuthenticationToken;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.test.context.support.WithMockUser;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest
+public class PushdownPermissionEvaluatorTest extends CustomMutableAclServiceTest {
+
+    private static final String TYPE = "PushdownTest";
+
+    @Autowired
+    private LookupOperations lookupOperations;
+
+    private final Authentication authentication = new TestingAuthenticationToken("pushdownUser", "pushdownUser", "ROLE_PUSHDOWN");
+    private final Sid user = new PrincipalSid("pushdownUser");
+    private final Sid role = new GrantedAuthoritySid("ROLE_PUSHDOWN");
+
+    private PermissionEvaluator inMemoryEvaluator;
+    private PushdownPermissionEvaluator pushdownEvaluator;
+
+    @BeforeEach
+    public void setUp() {
+        inMemoryEvaluator = new AclPermissionEvaluator(mutableAclService);
+        pushdownEvaluator = new PushdownPermissionEvaluator(inMemoryEvaluator, lookupOperations, aclCache);
+        pushdownEvaluator.setWarmUpThreshold(Integer.MAX_VALUE);
+    }
+
+    @Test
+    @WithMockUser(username = "pushdownOwner")
+    public void denyBeforeGrantTest() {
+        ObjectIdentity denyFirst = new ObjectIdentityImpl(TYPE, 1L);
+        ObjectIdentity grantFirst = new ObjectIdentityImpl(TYPE, 2L);
+        mutableAclService.createAcls(List.of(
+            AclSpec.builder().objectIdentity(denyFirst).aces(List.of(deny(user, BasePermission.READ), grant(user, BasePermission.READ))).build(),
+            AclSpec.builder().objectIdentity(grantFirst).aces(List.of(grant(user, BasePermission.READ), deny(user, BasePermission.READ))).build()
+        ));
+
+        assertAgreement(false, denyFirst, BasePermission.READ);
+        assertAgreement(true, grantFirst, BasePermission.READ);
+    }
+
+    @Test
+    @WithMockUser(username = "pushdownOwner")
+    public void sidOrderTest() {
+        ObjectIdentity principalDenied = new ObjectIdentityImpl(TYPE, 11L);
+        ObjectIdentity roleDenied = new ObjectIdentityImpl(TYPE, 12L);
+        mutableAclService.createAcls(List.of(
+            AclSpec.builder().objectIdentity(principalDenied).aces(List.of(grant(role, BasePermission.READ), deny(user, BasePermission.READ))).build(),
+            AclSpec.builder().objectIdentity(roleDenied).aces(List.of(deny(role, BasePermission.READ), grant(user, BasePermission.READ))).build()
+        ));
+
+        // The principal comes before its authorities, whatever the ACE order
+        assertAgreement(false, principalDenied, BasePermission.READ);
+        assertAgreement(true, roleDenied, BasePermission.READ);
+    }
+
+    @Test
+    @WithMockUser(username = "pushdownOwner")
+    public void inheritanceTest() {
+        ObjectIdentity parent = new ObjectIdentityImpl(TYPE, 21L);
+        ObjectIdentity inheriting = new ObjectIdentityImpl(TYPE, 22L);
+        ObjectIdentity notInheriting = new ObjectIdentityImpl(TYPE, 23L);
+        ObjectIdentity overriding = new ObjectIdentityImpl(TYPE, 24L);
+        mutableAclService.createAcls(List.of(
+            AclSpec.builder().objectIdentity(parent).aces(List.of(grant(role, BasePermission.READ), deny(user, BasePermission.WRITE))).build(),
+            AclSpec.builder().objectIdentity(inheriting).parent(parent).build(),
+            AclSpec.builder().objectIdentity(notInheriting).parent(parent).entriesInheriting(false).build(),
+            AclSpec.builder().objectIdentity(overriding).parent(parent).aces(List.of(grant(role, BasePermission.WRITE))).build()
+        ));
+
+        assertAgreement(true, inheriting, BasePermission.READ);
+        assertAgreement(false, inheriting, BasePermission.WRITE);
+        assertAgreement(false, notInheriting, BasePermission.READ);
+        // The nearest ACL with a match decides, even by a later SID
+        assertAgreement(true, overriding, BasePermission.WRITE);
+    }
+
+    @Test
+    public void noAclTest() {
+        assertAgreement(false, new ObjectIdentityImpl(TYPE, 31L), BasePermission.READ);
+    }
+
+    @Test
+    @WithMockUser(username = "pushdownOwner")
+    public void warmUpTest() {
+        ObjectIdentity oid = new ObjectIdentityImpl(TYPE, 41L);
+        mutableAclService.createAcls(List.of(AclSpec.builder().objectIdentity(oid).aces(List.of(grant(user, BasePermission.READ))).build()));
+        aclCache.clearCache();
+        pushdownEvaluator.setWarmUpThreshold(2);
+
+        // The first miss is answered by the query alone, the next one loads the ACL into the cache
+        assertTrue(pushdownEvaluator.hasPermission(authentication, oid.getIdentifier(), TYPE, BasePermission.READ));
+        assertNull(aclCache.getFromCache(oid));
+        assertTrue(pushdownEvaluator.hasPermission(authentication, oid.getIdentifier(), TYPE, BasePermission.READ));
+        assertNotNull(aclCache.getFromCache(oid));
+    }
+
+    @Test
+    @WithMockUser(username = "pushdownOwner")
+    public void statisticsTest() {
+        ObjectIdentity oid = new ObjectIdentityImpl(TYPE, 51L);
+        mutableAclService.createAcls(List.of(AclSpec.builder().objectIdentity(oid).aces(List.of(grant(user, BasePermission.READ))).build()));
+        aclCache.clearCache();
+
+        // A check answered by the query loads nothing, so it is not a cache miss
+        CacheStats before = aclCache.getStatistics();
+        assertTrue(pushdownEvaluator.hasPermission(authentication, oid.getIdentifier(), TYPE, BasePermission.READ));
+        assertEquals(0, aclCache.getStatistics().minus(before).requestCount());
+
+        // A cached check is counted once, by the delegate only
+        mutableAclService.readAclById(oid);
+        before = aclCache.getStatistics();
+        assertTrue(pushdownEvaluator.hasPermission(authentication, oid.getIdentifier(), TYPE, BasePermission.READ));
+        CacheStats stats = aclCache.getStatistics().minus(before);
+        assertEquals(1, stats.hitCount());
+        assertEquals(0, stats.missCount());
+    }
+
+    private void assertAgreement(boolean expected, ObjectIdentity oid, Permission permission) {
+        aclCache.clearCache();
+        boolean pushdown = pushdownEvaluator.hasPermission(authentication, oid.getIdentifier(), TYPE, permission);
+        assertNull(aclCache.getFromCache(oid));
+        boolean inMemory = inMemoryEvaluator.hasPermission(authentication, oid.getIdentifier(), TYPE, permission);
+        assertEquals(expected, pushdown);
+        assertEquals(expected, inMemory);
+    }
+
+}
@@ -0,0 +1,246 @@
+package com.jacknie.example.repository.acl;
+
+import com.jacknie.example.custom.SidType;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.context.annotation.Bean;
+import org.springframework.data.util.Pair;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.security.acls.domain.ObjectIdentityImpl;
+import org.springframework.security.acls.model.ObjectIdentity;
+
+import javax.sql.DataSource;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.util.*;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * 리포지토리가 실제로 실행 하는 SQL 과 바인딩 값을 기록 해서 실행 계획 확인
+ */
+@SpringBootTest(properties = "spring.datasource.url=jdbc:h2:mem:acl-plan-test")
+public class AclIndexPlanTest {
+
+    private static final List<RecordedStatement> recordedStatements = Collections.synchronizedList(new ArrayList<>());
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private AclObjectIdentityRepository oidRepository;
+
+    @Autowired
+    private AclEntryRepository entryRepository;
+
+    @Autowired
+    private AclSidRepository sidRepository;
+
+    @Autowired
+    private AclClassRepository classRepository;
+
+    @Autowired
+    private AclObjectIdentityClosureRepository closureRepository;
+
+    @Test
+    public void entryBySidTest() {
+        List<String> plans = explain(() -> entryRepository.findGrantingMaskMapBySidId(List.of(1L, 2L, 3L), 1L));
+        assertIndexUsed("acl_entry_sid_idx", plans);
+    }
+
+    @Test
+    public void entryByObjectIdentityTest() {
+        List<String> plans = explain(() -> oidRepository.findAclSourcePartsByObjectIdentityIdIn(Set.of(1L, 2L, 3L)));
+        assertNoTableScan("acl_entry", plans);
+        assertNoTableScan("acl_object_identity", plans);
+    }
+
+    @Test
+    public void objectIdentityByParentTest() {
+        List<String> plans = explain(() -> oidRepository.findChildrenByObjectIdentity(new ObjectIdentityImpl("Root", "root")));
+        assertIndexUsed("acl_object_identity_parent_idx", plans);
+    }
+
+    @Test
+    public void objectIdentityByParentRecursiveTest() {
+        List<String> plans = explain(() -> oidRepository.findDescendantIdsById(1L));
+        assertIndexUsed("acl_object_identity_parent_idx", plans);
+    }
+
+    @Test
+    public void parentIdsByIdTest() {
+        List<String> plans = explain(() -> oidRepository.findParentIdsByIdIn(List.of(1L, 2L, 3L)));
+        assertNoTableScan("acl_object_identity", plans);
+    }
+
+    @Test
+    public void permittedObjectsBySidTest() {
+        List<String> plans = explain(() -> oidRepository.findPermittedObjectPartsByType(
+            "Root",
+            List.of(Pair.of("ROLE_ADMIN", SidType.GRANTED_AUTHORITY)),
+            1,
+            0L,
+            10
+        ));
+        // The candidates start from the SID's entries and reach the inheriting descendants through the parent index
+        assertNoTableScan("acl_entry", plans);
+        assertNoTableScan("acl_object_identity", plans);
+        assertIndexUsed("acl_object_identity_parent_idx", plans);
+    }
+
+    @Test
+    public void objectIdentityByIdentifierTest() {
+        Set<ObjectIdentity> oids = Set.of(new ObjectIdentityImpl("Root", "root"), new ObjectIdentityImpl("Root", "other"), new ObjectIdentityImpl("Root", "third"));
+        List<String> plans = explain(() -> oidRepository.findAclSourcePartsByObjectIdentityIn(oids));
+        assertNoTableScan("acl_object_identity", plans);
+        assertNoTableScan("acl_entry", plans);
+    }
+
+    @Test
+    public void objectIdentityByNumberTest() {
+        Set<ObjectIdentity> oids = Set.of(new ObjectIdentityImpl("Root", 1L), new ObjectIdentityImpl("Root", 2L), new ObjectIdentityImpl("Root", 3L));
+        List<String> plans = explain(() -> oidRepository.findAclSourcePartsByObjectIdentityIn(oids));
+        assertIndexUsed("acl_object_identity_class_number_idx", plans);
+    }
+
+    @Test
+    public void objectIdentityWithAncestorsTest() {
+        Set<ObjectIdentity> oids = Set.of(new ObjectIdentityImpl("Root", "root"), new ObjectIdentityImpl("Root", 1L));
+        List<String> plans = explain(() -> oidRepository.findAclSourcePartsWithAncestorsByObjectIdentityIn(oids));
+        assertNoTableScan("acl_object_identity", plans);
+        assertNoTableScan("acl_entry", plans);
+    }
+
+    @Test
+    public void matchedAceWithAncestorsTest() {
+        List<String> plans = explain(() -> oidRepository.findMatchedAcePartsWithAncestorsByObjectIdentity(new ObjectIdentityImpl("Root", "root"), List.of("ROLE_ADMIN"), 1));
+        assertNoTableScan("acl_object_identity", plans);
+        assertNoTableScan("acl_entry", plans);
+    }
+
+    @Test
+    public void sidByTypeAndSidTest() {
+        List<String> plans = explain(() -> sidRepository.findIdByTypeAndSid(SidType.GRANTED_AUTHORITY, "ROLE_ADMIN"));
+        assertNoTableScan("acl_sid", plans);
+    }
+
+    @Test
+    public void classByNameTest() {
+        List<String> plans = explain(() -> classRepository.findIdByType("Root"));
+        assertNoTableScan("acl_class", plans);
+    }
+
+    @Test
+    public void closureByAncestorTest() {
+        List<String> plans = explain(() -> closureRepository.findDescendantIdsByAncestor(1L));
+        assertNoTableScan("acl_object_identity_closure", plans);
+    }
+
+    @Test
+    public void closureByDescendantTest() {
+        List<String> plans = explain(() -> oidRepository.findAclSourcePartsWithAncestorsByClosure(Set.of(new ObjectIdentityImpl("Root", "root"))));
+        assertIndexUsed("acl_object_identity_closure_descendant_idx", plans);
+    }
+
+    private void assertIndexUsed(String indexName, List<String> plans) {
+        assertTrue(plans.stream().anyMatch(plan -> plan.contains(indexName.toUpperCase(Locale.ENGLISH))), () -> indexName + " is not used: " + plans);
+    }
+
+    private void assertNoTableScan(String tableName, List<String> plans) {
+        assertTrue(plans.stream().noneMatch(plan -> plan.contains(tableName.toUpperCase(Locale.ENGLISH) + ".tableScan")), () -> tableName + " is scanned: " + plans);
+    }
+
+    /**
+     * 리포지토리 호출 중 실행 된 SQL 을 같은 바인딩 값으로 실행 계획 조회
+     * @param repositoryCall 리포지토리 호출
+     * @return 실행 된 SQL 별 실행 계획 목록
+     */
+    private List<String> explain(Runnable repositoryCall) {
+        recordedStatements.clear();
+        repositoryCall.run();
+        List<RecordedStatement> statements = List.copyOf(recordedStatements);
+        assertFalse(statements.isEmpty(), "no statement is executed");
+        return statements.stream()
+            .map(statement -> jdbcTemplate.query(
+                "explain " + statement.sql(),
+                ps -> {
+                    for (int i = 0; i < statement.parameters().size(); i++) {
+                        ps.setObject(i + 1, statement.parameters().get(i));
+                    }
+                },
+                rs -> rs.next() ? rs.getString(1) : ""
+            ))
+            .toList();
+    }
+
+    private record RecordedStatement(String sql, List<Object> parameters) {
+    }
+
+    /**
+     * 데이터 소스의 PreparedStatement 실행을 SQL 과 바인딩 값으로 기록
+     */
+    @TestConfiguration
+    static class RecordingDataSourceConfiguration {
+
+        @Bean
+        public DataSource dataSource(DataSourceProperties properties) {
+            DataSource dataSource = properties.initializeDataSourceBuilder().build();
+            return proxy(DataSource.class, dataSource, RecordingDataSourceConfiguration::wrapConnection);
+        }
+
+        private static Object wrapConnection(Object target, Method method, Object[] args) throws Throwable {
+            Object result = invoke(target, method, args);
+            if (result instanceof Connection connection) {
+                return proxy(Connection.class, connection, RecordingDataSourceConfiguration::wrapStatement);
+            }
+            return result;
+        }
+
+        private static Object wrapStatement(Object target, Method method, Object[] args) throws Throwable {
+            Object result = invoke(target, method, args);
+            if (result instanceof PreparedStatement statement && method.getName().equals("prepareStatement")) {
+                String sql = (String) args[0];
+                SortedMap<Integer, Object> parameters = new TreeMap<>();
+                return proxy(PreparedStatement.class, statement, (innerTarget, innerMethod, innerArgs) -> {
+                    String name = innerMethod.getName();
+                    if (name.startsWith("set") && innerArgs != null && innerArgs.length >= 2 && innerArgs[0] instanceof Integer index) {
+                        parameters.put(index, name.equals("setNull") ? null : innerArgs[1]);
+                    } else if (name.startsWith("execute") || name.equals("addBatch")) {
+                        if (!sql.startsWith("explain ")) {
+                            recordedStatements.add(new RecordedStatement(sql, new ArrayList<>(parameters.values())));
+                        }
+                    }
+                    return invoke(innerTarget, innerMethod, innerArgs);
+                });
+            }
+            return result;
+        }
+
+        private static Object invoke(Object target, Method method, Object[] args) throws Throwable {
+            try {
+                return method.invoke(target, args);
+            } catch (InvocationTargetException e) {
+                throw e.getTargetException();
+            }
+        }
+
+        private static <T> T proxy(Class<T> type, Object target, TargetInvocationHandler handler) {
+            return type.cast(Proxy.newProxyInstance(
+                type.getClassLoader(),
+                new Class<?>[] { type },
+                (proxy, method, args) -> handler.invoke(target, method, args)
+            ));
+        }
+
+        @FunctionalInterface
+        private interface TargetInvocationHandler {
+            Object invoke(Object target, Method method, Object[] args) throws Throwable;
+        }
+    }
+}
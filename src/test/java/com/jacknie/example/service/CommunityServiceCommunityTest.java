@@ -1,10 +1,12 @@
 package com.jacknie.example.service;
 
+import com.jacknie.example.custom.KeysetSlice;
 import com.jacknie.example.repository.community.Community;
 import org.junit.jupiter.api.Test;
 import org.springframework.boot.test.context.SpringBootTest;
 import org.springframework.security.access.AccessDeniedException;
 import org.springframework.security.acls.domain.BasePermission;
+import org.springframework.security.acls.domain.GrantedAuthoritySid;
 import org.springframework.security.acls.domain.ObjectIdentityImpl;
 import org.springframework.security.acls.domain.PrincipalSid;
 import org.springframework.security.acls.model.Acl;
@@ -14,7 +16,10 @@ import org.springframework.security.acls.model.Sid;
 import org.springframework.security.test.context.support.WithMockUser;
 
 import java.util.List;
+import java.util.Map;
 
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
 import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 
@@ -54,6 +59,21 @@ public class CommunityServiceCommunityTest extends CommunityServiceTest {
         assertThrows(AccessDeniedException.class, () -> communityService.getCommunity(communityId));
     }
 
+    @Test
+    @WithMockUser(username = "pagedOwner", roles = "NOT_USER")
+    public void getReadableCommunitiesTest() {
+        final long communityId1 = createCommunityByAdmin("Test Subject7", "pagedOwner");
+        createCommunityByAdmin("Test Subject8", "otherUser");
+        final long communityId2 = createCommunityByAdmin("Test Subject9", "pagedOwner");
+        final long communityId3 = createCommunityByAdmin("Test Subject10", "pagedOwner");
+        KeysetSlice<Community> first = communityService.getReadableCommunities(null, 2);
+        assertEquals(List.of(communityId1, communityId2), first.getContent().stream().map(Community::getId).toList());
+        assertTrue(first.hasNext());
+        KeysetSlice<Community> second = communityService.getReadableCommunities(first.getNextCursor(), 2);
+        assertEquals(List.of(communityId3), second.getContent().stream().map(Community::getId).toList());
+        assertFalse(second.hasNext());
+    }
+
     @Test
     @WithMockUser(username = "testCommChief")
     public void inviteCommunityTest() {
@@ -67,6 +87,19 @@ public class CommunityServiceCommunityTest extends CommunityServiceTest {
         assertTrue(acl.isGranted(permissions, sids, false));
     }
 
+    @Test
+    @WithMockUser(username = "testCommChief")
+    public void findEffectiveMasksTest() {
+        final long communityId = createCommunityByAdmin("Test Subject11", "testCommChief");
+        communityService.inviteCommunity(communityId, "effectiveUser");
+        Map<Sid, Integer> masks = mutableAclService.findEffectiveMasks(new ObjectIdentityImpl(Community.class.getName(), communityId));
+        assertEquals(Map.of(
+            new PrincipalSid("testCommChief"), 31,
+            new GrantedAuthoritySid("ROLE_USER"), BasePermission.READ.getMask(),
+            new PrincipalSid("effectiveUser"), BasePermission.CREATE.getMask()
+        ), masks);
+    }
+
     @Test
     @WithMockUser
     public void inviteCommunityAccessDeniedExceptionTest() {
@@ -1,15 +1,31 @@
 package com.jacknie.example.service;
 
+import com.jacknie.example.custom.AceSpec;
+import com.jacknie.example.repository.community.Community;
 import com.jacknie.example.repository.community.CommunityMessage;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.springframework.boot.test.context.SpringBootTest;
 import org.springframework.security.access.AccessDeniedException;
+import org.springframework.security.acls.domain.BasePermission;
+import org.springframework.security.acls.domain.GrantedAuthoritySid;
+import org.springframework.security.acls.domain.ObjectIdentityImpl;
+import org.springframework.security.acls.domain.PrincipalSid;
+import org.springframework.security.acls.model.AccessControlEntry;
+import org.springframework.security.acls.model.Acl;
+import org.springframework.security.acls.model.AlreadyExistsException;
+import org.springframework.security.acls.model.NotFoundException;
+import org.springframework.security.acls.model.ObjectIdentity;
 import org.springframework.security.test.context.support.WithMockUser;
 
+import java.util.List;
 import java.util.UUID;
 
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
 import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
 
 @SpringBootTest
 public class CommunityServiceMessageTest extends CommunityServiceTest {
@@ -55,6 +71,15 @@ public class CommunityServiceMessageTest extends CommunityServiceTest {
         communityService.getCommunityMessage(messageId);
     }
 
+    @Test
+    @WithMockUser(username = USER2)
+    public void getMessagesTest() {
+        long messageId1 = newCommunityMessage(USER1, communityId, "test message1", "message content1");
+        long messageId2 = newCommunityMessage(USER2, communityId, "test message2", "message content2");
+        List<CommunityMessage> messages = communityService.getCommunityMessages(communityId);
+        assertEquals(List.of(messageId1, messageId2), messages.stream().map(CommunityMessage::getId).toList());
+    }
+
     @Test
     @WithMockUser(username = USER1)
     public void updateMessageAccessDeniedExceptionTest() {
@@ -95,4 +120,56 @@ public class CommunityServiceMessageTest extends CommunityServiceTest {
         communityService.deleteCommunityMessage(messageId);
     }
 
+    @Test
+    @WithMockUser(username = USER1)
+    public void newMessageAclTest() {
+        ObjectIdentity communityObject = new ObjectIdentityImpl(Community.class.getName(), communityId);
+        mutableAclService.readAclById(communityObject);
+        Acl cachedCommunityAcl = aclCache.getFromCache(communityObject);
+
+        long messageId = newCommunityMessage(USER1, communityId, "acl message", "acl content");
+
+        // The child ACL is cached as created, linked to the cached parent instead of a reloaded one
+        ObjectIdentity messageObject = new ObjectIdentityImpl(CommunityMessage.class.getName(), messageId);
+        Acl cachedMessageAcl = aclCache.getFromCache(messageObject);
+        assertNotNull(cachedMessageAcl);
+        assertSame(cachedCommunityAcl, cachedMessageAcl.getParentAcl());
+
+        // The stored child ACL has the same parent, owner and ACEs
+        aclCache.clearCache();
+        Acl messageAcl = mutableAclService.readAclById(messageObject);
+        assertEquals(communityObject, messageAcl.getParentAcl().getObjectIdentity());
+        assertEquals(new PrincipalSid(USER1), messageAcl.getOwner());
+        assertEquals(1, messageAcl.getEntries().size());
+        AccessControlEntry ace = messageAcl.getEntries().get(0);
+        assertEquals(new PrincipalSid(USER1), ace.getSid());
+        assertEquals(BasePermission.WRITE.getMask() | BasePermission.DELETE.getMask(), ace.getPermission().getMask());
+        assertTrue(ace.isGranting());
+        // READ is inherited from the community ACL
+        assertTrue(messageAcl.isGranted(List.of(BasePermission.READ), List.of(new PrincipalSid(USER1), new GrantedAuthoritySid("ROLE_USER")), false));
+    }
+
+    @Test
+    @WithMockUser(username = USER1)
+    public void newMessageAclExistingChildTest() {
+        long messageId = newCommunityMessage(USER1, communityId, "acl message", "acl content");
+        ObjectIdentity communityObject = new ObjectIdentityImpl(Community.class.getName(), communityId);
+        ObjectIdentity messageObject = new ObjectIdentityImpl(CommunityMessage.class.getName(), messageId);
+        AceSpec ace = AceSpec.builder().sid(new PrincipalSid(USER2)).permission(BasePermission.WRITE).build();
+
+        assertThrows(
+                AlreadyExistsException.class,
+                () -> mutableAclService.createChildAcl(communityObject, messageObject, null, List.of(ace))
+        );
+        assertThrows(
+                NotFoundException.class,
+                () -> mutableAclService.createChildAcl(new ObjectIdentityImpl(Community.class.getName(), -1L), messageObject, null, List.of(ace))
+        );
+
+        // The existing child ACL is left as it was
+        aclCache.clearCache();
+        Acl messageAcl = mutableAclService.readAclById(messageObject);
+        assertEquals(List.of(new PrincipalSid(USER1)), messageAcl.getEntries().stream().map(AccessControlEntry::getSid).toList());
+    }
+
 }
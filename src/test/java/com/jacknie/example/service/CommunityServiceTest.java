@@ -1,6 +1,8 @@
 package com.jacknie.example.service;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.jacknie.example.custom.EnhancedAclCache;
+import com.jacknie.example.custom.EnhancedMutableAclService;
 import com.jacknie.example.repository.acl.AclClassRepository;
 import com.jacknie.example.repository.acl.AclEntryRepository;
 import com.jacknie.example.repository.acl.AclObjectIdentityRepository;
@@ -8,7 +10,6 @@ import com.jacknie.example.repository.acl.AclSidRepository;
 import com.jacknie.example.repository.community.CommunityMessage;
 import com.jacknie.example.repository.community.CommunityRepository;
 import org.springframework.beans.factory.annotation.Autowired;
-import org.springframework.security.acls.model.MutableAclService;
 import org.springframework.security.acls.model.Permission;
 import org.springframework.security.authentication.TestingAuthenticationToken;
 import org.springframework.security.core.Authentication;
@@ -31,7 +32,10 @@ public class CommunityServiceTest {
     protected CommunityService communityService;
 
     @Autowired
-    protected MutableAclService mutableAclService;
+    protected EnhancedMutableAclService mutableAclService;
+
+    @Autowired
+    protected EnhancedAclCache aclCache;
 
     @Autowired
     protected CommunityRepository communityRepository;